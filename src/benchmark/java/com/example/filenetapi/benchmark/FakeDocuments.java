@@ -0,0 +1,95 @@
+package com.example.filenetapi.benchmark;
+
+import com.filenet.api.core.Document;
+import com.filenet.api.meta.ClassDescription;
+import com.filenet.api.property.Properties;
+import com.filenet.api.property.Property;
+import com.filenet.api.util.Id;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory stand-ins for CE objects. They are dynamic proxies, so every call costs the same small
+ * reflective overhead; compare variants against each other rather than reading absolute numbers.
+ */
+public final class FakeDocuments {
+
+    private FakeDocuments() {
+    }
+
+    public static List<Document> documents(int count, String className, int customPropertyCount) {
+        ClassDescription classDescription = proxy(ClassDescription.class, (method, args) ->
+                "get_SymbolicName".equals(method) ? className : null);
+
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("Id", new Id("{" + UUID.randomUUID() + "}"));
+            values.put("Name", "document-" + i + ".pdf");
+            values.put("MimeType", "application/pdf");
+            values.put("DateCreated", new Date(1_700_000_000_000L + i));
+            values.put("DateLastModified", new Date(1_700_000_000_000L + i));
+            values.put("Creator", "scanner");
+            values.put("LastModifier", "scanner");
+            values.put("F_DOCNUMBER", i);
+            for (int p = 0; p < customPropertyCount; p++) {
+                values.put("Custom" + p, "value-" + i + "-" + p);
+            }
+            documents.add(document(values, classDescription));
+        }
+        return documents;
+    }
+
+    private static Document document(Map<String, Object> values, ClassDescription classDescription) {
+        List<Property> propertyList = new ArrayList<>(values.size());
+        values.forEach((name, value) -> propertyList.add(proxy(Property.class, (method, args) -> switch (method) {
+            case "getPropertyName" -> name;
+            case "getObjectValue" -> value;
+            default -> null;
+        })));
+
+        Properties properties = proxy(Properties.class, (method, args) -> switch (method) {
+            case "iterator" -> propertyList.iterator();
+            case "isPropertyPresent" -> values.containsKey((String) args[0]);
+            case "getObjectValue" -> values.get((String) args[0]);
+            case "size" -> values.size();
+            default -> null;
+        });
+
+        return proxy(Document.class, (method, args) -> switch (method) {
+            case "get_Id" -> values.get("Id");
+            case "get_Name" -> values.get("Name");
+            case "get_MimeType" -> values.get("MimeType");
+            case "get_DateCreated" -> values.get("DateCreated");
+            case "get_DateLastModified" -> values.get("DateLastModified");
+            case "get_Creator" -> values.get("Creator");
+            case "get_LastModifier" -> values.get("LastModifier");
+            case "get_ClassDescription" -> classDescription;
+            case "getClassName" -> classDescription.get_SymbolicName();
+            case "getProperties" -> properties;
+            default -> null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(FakeDocuments.class.getClassLoader(), new Class<?>[]{type},
+                (self, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    case "toString" -> type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                    default -> handler.invoke(method.getName(), args);
+                });
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        Object invoke(String method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.filenetapi.benchmark;
+
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.service.Bulkheads;
+import com.example.filenetapi.service.ClassMetadata;
+import com.example.filenetapi.service.ClassMetadataCache;
+import com.example.filenetapi.service.ConcurrencyLimiter;
+import com.example.filenetapi.service.DocumentMapper;
+import com.example.filenetapi.service.DocumentService;
+import com.example.filenetapi.service.FileNetMetrics;
+import com.example.filenetapi.service.SearchQueryPlanCache;
+import com.example.filenetapi.service.SearchResultCache;
+import com.example.filenetapi.service.SearchScopeFactory;
+import com.filenet.api.collection.DocumentSet;
+import com.filenet.api.collection.IndependentObjectSet;
+import com.filenet.api.collection.PageIterator;
+import com.filenet.api.core.Document;
+import com.filenet.api.core.ObjectStore;
+import com.filenet.api.property.PropertyFilter;
+import com.filenet.api.query.SearchSQL;
+import com.filenet.api.query.SearchScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An object store whose every query returns the same in-memory result set, for driving
+ * {@link DocumentService} search paths without a Content Engine.
+ */
+public final class FakeObjectStore {
+
+    private final ObjectStore objectStore;
+    private final List<Document> documents;
+    private final long latencyMillis;
+    private final FileNetSessionManager sessionManager;
+
+    public FakeObjectStore(String name, List<Document> documents) {
+        this(name, documents, 0);
+    }
+
+    public FakeObjectStore(String name, List<Document> documents, long latencyMillis) {
+        this.objectStore = FakeDocuments.proxy(ObjectStore.class, (method, args) ->
+                "get_SymbolicName".equals(method) ? name : null);
+        this.documents = documents;
+        this.latencyMillis = latencyMillis;
+        // Threads without a bound session still resolve the fake store
+        this.sessionManager = new FileNetSessionManager() {
+            @Override
+            public ObjectStore currentObjectStore() {
+                FileNetSession session = currentSession();
+                return session != null ? session.getObjectStore() : objectStore;
+            }
+        };
+    }
+
+    public ObjectStore objectStore() {
+        return objectStore;
+    }
+
+    public FileNetSessionManager sessionManager() {
+        return sessionManager;
+    }
+
+    public DocumentService documentService() {
+        DocumentService documentService = new DocumentService();
+        ReflectionTestUtils.setField(documentService, "sessionManager", sessionManager);
+        ReflectionTestUtils.setField(documentService, "documentMapper", new DocumentMapper());
+        ReflectionTestUtils.setField(documentService, "searchScopeFactory", searchScopeFactory());
+        ReflectionTestUtils.setField(documentService, "bulkheads", unlimitedBulkheads());
+        ReflectionTestUtils.setField(documentService, "queryPlanCache", queryPlanCache());
+        // Every iteration must reach the fake store, not a cached page
+        ReflectionTestUtils.setField(documentService, "searchResultCache", new SearchResultCache(false, Duration.ZERO, 0));
+        ReflectionTestUtils.setField(documentService, "metrics", new FileNetMetrics(new SimpleMeterRegistry(), 50));
+        return documentService;
+    }
+
+    private static SearchQueryPlanCache queryPlanCache() {
+        ClassMetadataCache classMetadataCache = new ClassMetadataCache() {
+            @Override
+            public ClassMetadata get(ObjectStore store, String className) {
+                return ClassMetadata.builder()
+                        .symbolicName(className)
+                        .propertyNames(Set.of("Id", "Name", "DateCreated", "DateLastModified"))
+                        .build();
+            }
+        };
+        SearchQueryPlanCache queryPlanCache = new SearchQueryPlanCache();
+        ReflectionTestUtils.setField(queryPlanCache, "classMetadataCache", classMetadataCache);
+        return queryPlanCache;
+    }
+
+    private static Bulkheads unlimitedBulkheads() {
+        // The limiter is not what these benchmarks measure, so admit every caller
+        return new Bulkheads(unlimited("search"), unlimited("content"), unlimited("metadata"));
+    }
+
+    private static ConcurrencyLimiter unlimited(String name) {
+        return new ConcurrencyLimiter(name, 1_000_000, 1_000_000, 1_000_000, Long.MAX_VALUE, 1);
+    }
+
+    public SearchScopeFactory searchScopeFactory() {
+        return new SearchScopeFactory() {
+            @Override
+            public SearchScope create(ObjectStore store) {
+                return new SearchScope(store) {
+                    @Override
+                    public IndependentObjectSet fetchObjects(SearchSQL searchSQL, Integer pageSize,
+                                                             PropertyFilter filter, Boolean continuable) {
+                        simulateRoundTrip();
+                        return documentSet(pageSize);
+                    }
+                };
+            }
+        };
+    }
+
+    private void simulateRoundTrip() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private DocumentSet documentSet(int pageSize) {
+        return FakeDocuments.proxy(DocumentSet.class, (method, args) -> switch (method) {
+            case "iterator" -> documents.iterator();
+            case "isEmpty" -> documents.isEmpty();
+            case "pageIterator" -> pageIterator(pageSize);
+            default -> null;
+        });
+    }
+
+    private PageIterator pageIterator(int initialPageSize) {
+        int[] state = {initialPageSize, 0};
+        Object[][] currentPage = {new Object[0]};
+        return FakeDocuments.proxy(PageIterator.class, (method, args) -> switch (method) {
+            case "setPageSize" -> {
+                state[0] = (Integer) args[0];
+                yield null;
+            }
+            case "getPageSize" -> state[0];
+            case "nextPage" -> {
+                int start = state[1];
+                if (start >= documents.size()) {
+                    yield false;
+                }
+                int end = Math.min(documents.size(), start + state[0]);
+                currentPage[0] = documents.subList(start, end).toArray();
+                state[1] = end;
+                yield true;
+            }
+            case "getCurrentPage" -> currentPage[0];
+            case "getElementCount" -> currentPage[0].length;
+            default -> null;
+        });
+    }
+}
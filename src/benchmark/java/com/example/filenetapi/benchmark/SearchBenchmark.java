@@ -0,0 +1,59 @@
+package com.example.filenetapi.benchmark;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.example.filenetapi.dto.SearchRequestDTO;
+import com.example.filenetapi.service.DocumentService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Both search paths of {@link DocumentService} against an in-memory object store, isolating the
+ * service's own iteration, offset skipping and mapping cost from CE round-trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    @Param({"0", "1000", "10000"})
+    private int offset;
+
+    private DocumentService documentService;
+    private SearchRequestDTO searchRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        documentService = new FakeObjectStore("BENCH", FakeDocuments.documents(20_000, "Invoice", 30)).documentService();
+
+        searchRequest = new SearchRequestDTO();
+        searchRequest.setSqlQuery("SELECT * FROM Invoice WHERE Amount > 10");
+        searchRequest.setMaxResults(pageSize);
+        searchRequest.setOffset(offset);
+        searchRequest.setPropertiesToInclude(new String[]{"Custom1", "Custom7", "Custom13"});
+        searchRequest.setOrderBy("DateCreated");
+    }
+
+    @Benchmark
+    public List<DocumentPropertiesDTO> simpleSearch() throws Exception {
+        return documentService.searchDocuments(searchRequest.getSqlQuery(), pageSize);
+    }
+
+    @Benchmark
+    public List<DocumentPropertiesDTO> advancedSearch() throws Exception {
+        return documentService.searchDocumentsAdvanced(searchRequest);
+    }
+
+    @Benchmark
+    public void streamedSearch(Blackhole blackhole) throws Exception {
+        documentService.streamDocuments(searchRequest, blackhole::consume);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.filenetapi.benchmark;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.example.filenetapi.service.ColumnarResults;
+import com.example.filenetapi.service.DocumentMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization of search result pages with the same ObjectMapper defaults Spring MVC uses, per response encoding.
+ * Scores are per page; divide by {@code rows} for CPU per row. Bytes on the wire are reported as the
+ * {@code bytesPerPage} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    @Param({"0", "30"})
+    private int customProperties;
+
+    @Param({"json", "columnar", "smile", "smile-columnar", "cbor"})
+    private String encoding;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private Object page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = encoding.startsWith("smile") ? Jackson2ObjectMapperBuilder.smile().build()
+                : "cbor".equals(encoding) ? Jackson2ObjectMapperBuilder.cbor().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        DocumentMapper mapper = new DocumentMapper();
+        List<DocumentPropertiesDTO> results = FakeDocuments.documents(rows, "Invoice", customProperties).stream()
+                .map(mapper::map)
+                .collect(Collectors.toList());
+        page = encoding.endsWith("columnar") ? ColumnarResults.of(results, null) : results;
+    }
+
+    @Benchmark
+    public byte[] serializePage(WireSize wireSize) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        try (OutputStream out = gzip ? new GZIPOutputStream(buffer) : buffer) {
+            objectMapper.writeValue(out, page);
+        }
+        wireSize.bytesPerPage = buffer.size();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Size of the last serialized page. Every page of a trial is identical, so the value is exact rather than a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+        public long bytesPerPage;
+    }
+}
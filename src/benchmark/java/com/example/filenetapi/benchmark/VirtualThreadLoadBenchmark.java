@@ -0,0 +1,109 @@
+package com.example.filenetapi.benchmark;
+
+import com.example.filenetapi.config.BenchmarkSessions;
+import com.example.filenetapi.config.FileNetExecutors;
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.SearchRequestDTO;
+import com.example.filenetapi.service.DocumentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for the virtual-thread mode: a burst of concurrent searches against a store with a fixed
+ * round-trip latency, dispatched through {@link FileNetExecutors} exactly as the application builds its
+ * executors, so every task carries the caller's FileNet session through the task decorator. Platform
+ * mode is a 200-thread pool (Tomcat's default); virtual mode allows one virtual thread per request.
+ * Lower time per burst means more requests in flight at once; {@code peakHeapMb} shows the heap cost
+ * of that concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx512m"})
+public class VirtualThreadLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"1000", "5000"})
+    private int concurrentRequests;
+
+    @Param({"50"})
+    private long latencyMillis;
+
+    private FileNetSessionManager sessionManager;
+    private FileNetSession session;
+    private DocumentService documentService;
+    private SearchRequestDTO searchRequest;
+    private AsyncTaskExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FakeObjectStore store = new FakeObjectStore("BENCH", FakeDocuments.documents(50, "Invoice", 10), latencyMillis);
+        sessionManager = store.sessionManager();
+        session = BenchmarkSessions.session("bench", store.objectStore());
+        documentService = store.documentService();
+        searchRequest = new SearchRequestDTO();
+        searchRequest.setSqlQuery("SELECT * FROM Invoice");
+        searchRequest.setMaxResults(50);
+    }
+
+    @Setup(Level.Iteration)
+    public void startExecutor() {
+        boolean virtual = "virtual".equals(threads);
+        executor = FileNetExecutors.create("bench-", virtual ? concurrentRequests : 200, virtual, sessionManager);
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopExecutor() throws Exception {
+        if (executor instanceof DisposableBean disposable) {
+            disposable.destroy();
+        } else if (executor instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public void burst(HeapCounters counters) throws Exception {
+        List<Future<?>> futures = new ArrayList<>(concurrentRequests);
+        // Submitted like a request thread would: the decorator captures this binding and rebinds it per task
+        try (FileNetSessionManager.Binding binding = sessionManager.bind(session)) {
+            for (int i = 0; i < concurrentRequests; i++) {
+                futures.add(executor.submit(() -> documentService.searchDocumentsAdvanced(searchRequest)));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        counters.record();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        public double peakHeapMb;
+
+        void record() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            peakHeapMb = Math.max(peakHeapMb, peak / (1024.0 * 1024.0));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.filenetapi.config;
+
+import com.filenet.api.core.ObjectStore;
+
+import javax.security.auth.Subject;
+
+/**
+ * Sessions for benchmarks, which have no Content Engine to log in to. Binding one pushes an empty
+ * subject, so the decorator and UserContext work is the same as in production.
+ */
+public final class BenchmarkSessions {
+
+    private BenchmarkSessions() {
+    }
+
+    public static FileNetSession session(String username, ObjectStore objectStore) {
+        return new FileNetSession(username, new Subject(), null, objectStore);
+    }
+}
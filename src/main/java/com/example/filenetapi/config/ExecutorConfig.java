@@ -0,0 +1,30 @@
+package com.example.filenetapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Bean
+    public AsyncTaskExecutor filenetExecutor(FileNetSessionManager sessionManager,
+                                             @Value("${filenet.bulk.parallelism:4}") int parallelism) {
+        // Bounds how many CE calls bulk operations fan out concurrently, whatever the request count
+        return FileNetExecutors.create("filenet-bulk-", parallelism, virtualThreads, sessionManager);
+    }
+
+    @Bean
+    public AsyncTaskExecutor contentReadExecutor() {
+        // One thread per read-ahead part, deliberately unbounded: readers block on their part's queue, so a shared
+        // limit could starve the part a consumer is waiting on. Uploads are already bounded by the upload budget.
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("filenet-parts-");
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.filenetapi.config;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+public final class FileNetExecutors {
+
+    private FileNetExecutors() {
+    }
+
+    public static AsyncTaskExecutor create(String threadNamePrefix, int concurrency, boolean virtualThreads,
+                                           FileNetSessionManager sessionManager) {
+        FileNetSessionTaskDecorator taskDecorator = new FileNetSessionTaskDecorator(sessionManager);
+        if (virtualThreads) {
+            // One cheap virtual thread per task; the limit keeps the CE from seeing unbounded fan-out
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            executor.setTaskDecorator(taskDecorator);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setTaskDecorator(taskDecorator);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.filenetapi.config;
+
+import com.example.filenetapi.service.BufferPool;
+import com.example.filenetapi.service.Bulkheads;
+import com.example.filenetapi.service.ConcurrencyLimiter;
+import com.example.filenetapi.service.ContentCache;
+import com.example.filenetapi.service.DocumentMetadataCache;
+import com.example.filenetapi.service.IngestQueue;
+import com.example.filenetapi.service.SearchQueryPlanCache;
+import com.example.filenetapi.service.SearchResultCache;
+import com.example.filenetapi.service.UploadBudget;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class FileNetMeterBinder implements MeterBinder {
+
+    @Autowired
+    private FileNetSessionManager sessionManager;
+
+    @Autowired
+    private DocumentMetadataCache metadataCache;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private SearchQueryPlanCache queryPlanCache;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private UploadBudget uploadBudget;
+
+    @Autowired
+    private BufferPool bufferPool;
+
+    @Autowired
+    private IngestQueue ingestQueue;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filenet.session.pool.size", sessionManager, m -> m.getStats().getSize())
+                .description("Cached FileNet sessions")
+                .register(registry);
+        FunctionCounter.builder("filenet.session.pool.misses", sessionManager, m -> m.getStats().getMisses())
+                .description("Session lookups that had to authenticate")
+                .register(registry);
+
+        Gauge.builder("filenet.cache.size", metadataCache, c -> c.getStats().getSize()).tag("cache", "metadata").register(registry);
+        FunctionCounter.builder("filenet.cache.hits", metadataCache, c -> c.getStats().getHits()).tag("cache", "metadata").register(registry);
+        FunctionCounter.builder("filenet.cache.misses", metadataCache, c -> c.getStats().getMisses()).tag("cache", "metadata").register(registry);
+        Gauge.builder("filenet.cache.size", searchResultCache, c -> c.getStats().getSize()).tag("cache", "search").register(registry);
+        Gauge.builder("filenet.cache.weight", searchResultCache, c -> c.getStats().getWeightBytes())
+                .tag("cache", "search").baseUnit("bytes").register(registry);
+        FunctionCounter.builder("filenet.cache.hits", searchResultCache, c -> c.getStats().getHits()).tag("cache", "search").register(registry);
+        FunctionCounter.builder("filenet.cache.misses", searchResultCache, c -> c.getStats().getMisses()).tag("cache", "search").register(registry);
+        Gauge.builder("filenet.cache.size", queryPlanCache, c -> c.getStats().getSize()).tag("cache", "query-plans").register(registry);
+        FunctionCounter.builder("filenet.cache.hits", queryPlanCache, c -> c.getStats().getHits()).tag("cache", "query-plans").register(registry);
+        FunctionCounter.builder("filenet.cache.misses", queryPlanCache, c -> c.getStats().getMisses()).tag("cache", "query-plans").register(registry);
+        Gauge.builder("filenet.cache.size", contentCache, c -> c.getStats().getSize()).tag("cache", "content").register(registry);
+        Gauge.builder("filenet.cache.weight", contentCache, c -> c.getStats().getWeightBytes())
+                .tag("cache", "content").baseUnit("bytes").register(registry);
+        FunctionCounter.builder("filenet.cache.hits", contentCache, c -> c.getStats().getHits()).tag("cache", "content").register(registry);
+        FunctionCounter.builder("filenet.cache.misses", contentCache, c -> c.getStats().getMisses()).tag("cache", "content").register(registry);
+
+        for (Map.Entry<String, ConcurrencyLimiter> bulkhead : Map.of(
+                "search", bulkheads.search(), "content", bulkheads.content(), "metadata", bulkheads.metadata()).entrySet()) {
+            ConcurrencyLimiter limiter = bulkhead.getValue();
+            Gauge.builder("filenet.limiter.limit", limiter, ConcurrencyLimiter::getLimit).tag("bulkhead", bulkhead.getKey()).register(registry);
+            Gauge.builder("filenet.limiter.inflight", limiter, ConcurrencyLimiter::getInFlight).tag("bulkhead", bulkhead.getKey()).register(registry);
+            FunctionCounter.builder("filenet.limiter.rejected", limiter, l -> l.getStats().getRejected())
+                    .tag("bulkhead", bulkhead.getKey()).register(registry);
+        }
+
+        Gauge.builder("filenet.upload.inflight", uploadBudget, UploadBudget::getInFlightBytes).baseUnit("bytes").register(registry);
+        Gauge.builder("filenet.ingest.queued", ingestQueue, IngestQueue::getQueuedCount).register(registry);
+        Gauge.builder("filenet.ingest.log", ingestQueue, IngestQueue::getLogBytes).baseUnit("bytes").register(registry);
+        Gauge.builder("filenet.content.buffers.idle", bufferPool, BufferPool::getIdleBuffers).register(registry);
+    }
+}
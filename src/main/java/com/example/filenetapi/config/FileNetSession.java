@@ -0,0 +1,68 @@
+package com.example.filenetapi.config;
+
+import com.filenet.api.core.Domain;
+import com.filenet.api.core.Factory;
+import com.filenet.api.core.ObjectStore;
+
+import javax.security.auth.Subject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FileNetSession {
+
+    private final String username;
+    private final Subject subject;
+    private final Domain domain;
+    private final String defaultObjectStoreName;
+    private final Map<String, ObjectStore> objectStores = new ConcurrentHashMap<>();
+    private final AtomicInteger activeBindings = new AtomicInteger();
+    private volatile long lastUsedNanos = System.nanoTime();
+
+    FileNetSession(String username, Subject subject, Domain domain, ObjectStore defaultObjectStore) {
+        this.username = username;
+        this.subject = subject;
+        this.domain = domain;
+        this.defaultObjectStoreName = defaultObjectStore.get_SymbolicName();
+        this.objectStores.put(defaultObjectStoreName, defaultObjectStore);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Subject getSubject() {
+        return subject;
+    }
+
+    public Domain getDomain() {
+        return domain;
+    }
+
+    public ObjectStore getObjectStore() {
+        return objectStores.get(defaultObjectStoreName);
+    }
+
+    public ObjectStore getObjectStore(String name) {
+        // Must be called while this session's subject is bound to the thread
+        return objectStores.computeIfAbsent(name, n -> Factory.ObjectStore.fetchInstance(domain, n, null));
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    boolean isInUse() {
+        return activeBindings.get() > 0;
+    }
+
+    void acquire() {
+        activeBindings.incrementAndGet();
+        lastUsedNanos = System.nanoTime();
+    }
+
+    void release() {
+        lastUsedNanos = System.nanoTime();
+        activeBindings.decrementAndGet();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.filenetapi.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Component
+public class FileNetSessionFilter extends OncePerRequestFilter {
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    @Autowired
+    private FileNetSessionManager sessionManager;
+
+    @Value("${filenet.session.pass-through-credentials:false}")
+    private boolean passThroughCredentials;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        FileNetSession session;
+        if (passThroughCredentials) {
+            // Every call runs as its caller; falling back to the service account would lend it that account's rights
+            String[] credentials = basicCredentials(request.getHeader(HttpHeaders.AUTHORIZATION));
+            if (credentials == null) {
+                unauthorized(response, "Basic credentials are required");
+                return;
+            }
+            try {
+                session = sessionManager.acquire(credentials[0], credentials[1]);
+            } catch (Exception e) {
+                unauthorized(response, "FileNet rejected the supplied credentials");
+                return;
+            }
+        } else {
+            try {
+                session = sessionManager.serviceSession();
+            } catch (Exception e) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+                return;
+            }
+        }
+
+        try (FileNetSessionManager.Binding binding = sessionManager.bind(session)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    static String[] basicCredentials(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(authorization.substring(BASIC_PREFIX.length()).trim()),
+                    StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int separator = decoded.indexOf(':');
+        if (separator <= 0) {
+            return null;
+        }
+        return new String[]{decoded.substring(0, separator), decoded.substring(separator + 1)};
+    }
+
+    private static void unauthorized(HttpServletResponse response, String message) throws IOException {
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"FileNet\"");
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, message);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.filenetapi.config;
+
+import com.example.filenetapi.dto.SessionPoolStatsDTO;
+import com.filenet.api.core.Connection;
+import com.filenet.api.core.Domain;
+import com.filenet.api.core.Factory;
+import com.filenet.api.core.ObjectStore;
+import com.filenet.api.util.UserContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.security.auth.Subject;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class FileNetSessionManager {
+
+    private static final Binding NO_BINDING = () -> { };
+
+    @Autowired
+    private Connection connection;
+
+    @Value("${filenet.username}")
+    private String username;
+
+    @Value("${filenet.password}")
+    private String password;
+
+    @Value("${filenet.objectstore}")
+    private String objectStoreName;
+
+    @Value("${filenet.objectstores:}")
+    private List<String> objectStoreNames;
+
+    @Value("${filenet.session.idle-timeout:PT30M}")
+    private Duration idleTimeout;
+
+    private final Map<String, FileNetSession> sessions = new ConcurrentHashMap<>();
+    private final ThreadLocal<FileNetSession> currentSession = new ThreadLocal<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong creationFailures = new AtomicLong();
+    private final AtomicLong totalCreationNanos = new AtomicLong();
+    private final AtomicLong maxCreationNanos = new AtomicLong();
+
+    public FileNetSession serviceSession() {
+        return acquire(username, password);
+    }
+
+    public FileNetSession acquire(String user, String pwd) {
+        String key = credentialKey(user, pwd);
+        FileNetSession session = sessions.get(key);
+        if (session != null) {
+            hits.incrementAndGet();
+            return session;
+        }
+
+        misses.incrementAndGet();
+        FileNetSession created = createSession(user, pwd);
+        FileNetSession existing = sessions.putIfAbsent(key, created);
+        return existing != null ? existing : created;
+    }
+
+    public Binding bind(FileNetSession session) {
+        if (session == null) {
+            return NO_BINDING;
+        }
+
+        FileNetSession previous = currentSession.get();
+        session.acquire();
+        UserContext.get().pushSubject(session.getSubject());
+        currentSession.set(session);
+        return () -> {
+            UserContext.get().popSubject();
+            session.release();
+            if (previous != null) {
+                currentSession.set(previous);
+            } else {
+                currentSession.remove();
+            }
+        };
+    }
+
+    public FileNetSession currentSession() {
+        return currentSession.get();
+    }
+
+    public ObjectStore currentObjectStore() {
+        FileNetSession session = currentSession.get();
+        if (session == null) {
+            throw new IllegalStateException("No FileNet session is bound to the current thread");
+        }
+        return session.getObjectStore();
+    }
+
+    public List<String> getObjectStoreNames() {
+        // Federated searches span every configured store; the default store alone when none are listed
+        List<String> names = objectStoreNames == null ? List.of()
+                : objectStoreNames.stream().map(String::trim).filter(name -> !name.isEmpty()).toList();
+        return names.isEmpty() ? List.of(objectStoreName) : names;
+    }
+
+    @Scheduled(fixedDelayString = "${filenet.session.eviction-interval:PT1M}")
+    public void evictIdleSessions() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        sessions.entrySet().removeIf(entry -> {
+            FileNetSession session = entry.getValue();
+            boolean idle = !session.isInUse() && session.getLastUsedNanos() - cutoff < 0;
+            if (idle) {
+                evictions.incrementAndGet();
+            }
+            return idle;
+        });
+    }
+
+    public SessionPoolStatsDTO getStats() {
+        long created = misses.get() - creationFailures.get();
+        return SessionPoolStatsDTO.builder()
+                .size(sessions.size())
+                .hits(hits.get())
+                .misses(misses.get())
+                .evictions(evictions.get())
+                .creationFailures(creationFailures.get())
+                .averageCreationMillis(created > 0 ? totalCreationNanos.get() / 1_000_000.0 / created : 0)
+                .maxCreationMillis(maxCreationNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    private FileNetSession createSession(String user, String pwd) {
+        long start = System.nanoTime();
+        Subject subject = UserContext.createSubject(connection, user, pwd, null);
+
+        // Domain and object store are fetched under the new subject, then the thread is restored
+        UserContext.get().pushSubject(subject);
+        try {
+            Domain domain = Factory.Domain.fetchInstance(connection, null, null);
+            ObjectStore objectStore = Factory.ObjectStore.fetchInstance(domain, objectStoreName, null);
+            long elapsed = System.nanoTime() - start;
+            totalCreationNanos.addAndGet(elapsed);
+            maxCreationNanos.accumulateAndGet(elapsed, Math::max);
+            return new FileNetSession(user, subject, domain, objectStore);
+        } catch (RuntimeException e) {
+            creationFailures.incrementAndGet();
+            throw e;
+        } finally {
+            UserContext.get().popSubject();
+        }
+    }
+
+    private static String credentialKey(String user, String pwd) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(user.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(pwd.getBytes(StandardCharsets.UTF_8));
+            return user + ":" + HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.filenetapi.config;
+
+import org.springframework.core.task.TaskDecorator;
+
+public class FileNetSessionTaskDecorator implements TaskDecorator {
+
+    private final FileNetSessionManager sessionManager;
+
+    public FileNetSessionTaskDecorator(FileNetSessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        // Capture on the submitting thread, bind on whichever thread runs the task
+        FileNetSession session = sessionManager.currentSession();
+        return () -> {
+            try (FileNetSessionManager.Binding binding = sessionManager.bind(session)) {
+                runnable.run();
+            }
+        };
+    }
+}
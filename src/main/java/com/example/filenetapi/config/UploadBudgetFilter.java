@@ -0,0 +1,58 @@
+package com.example.filenetapi.config;
+
+import com.example.filenetapi.service.CapacityExceededException;
+import com.example.filenetapi.service.UploadBudget;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+
+@Component
+public class UploadBudgetFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private UploadBudget uploadBudget;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !StringUtils.startsWithIgnoreCase(request.getContentType(), "multipart/")
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // The dispatcher spools every part before a controller runs, so the body is admitted by its declared length.
+        // Chunked bodies have none; they stay bounded by the multipart size limits and reserve once parsed
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        UploadBudget.Reservation reservation;
+        try {
+            reservation = uploadBudget.admit(contentLength);
+        } catch (MaxUploadSizeExceededException e) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, e.getMessage());
+            return;
+        } catch (CapacityExceededException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return;
+        }
+
+        try (reservation) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
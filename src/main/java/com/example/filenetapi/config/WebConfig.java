@@ -0,0 +1,34 @@
+package com.example.filenetapi.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private FileNetSessionManager sessionManager;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${filenet.async.concurrency:64}")
+    private int asyncConcurrency;
+
+    @Value("${filenet.async.request-timeout:PT1H}")
+    private Duration asyncRequestTimeout;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Streaming responses run off the request thread and still need the caller's FileNet subject
+        configurer.setTaskExecutor(FileNetExecutors.create("filenet-async-", asyncConcurrency, virtualThreads, sessionManager));
+        // Exports run as long as the result set; without this the container default (30s on Tomcat) cuts them off
+        configurer.setDefaultTimeout(asyncRequestTimeout.isNegative() || asyncRequestTimeout.isZero()
+                ? -1 : asyncRequestTimeout.toMillis());
+    }
+}
@@ -1,8 +1,22 @@
 package com.example.filenetapi.controller;
 
+import com.example.filenetapi.dto.BatchItemResultDTO;
+import com.example.filenetapi.dto.BulkRequestDTO;
+import com.example.filenetapi.dto.ChangeDTO;
+import com.example.filenetapi.dto.DocumentCreatedDTO;
 import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.example.filenetapi.dto.SearchColumnsDTO;
+import com.example.filenetapi.dto.SearchPageDTO;
 import com.example.filenetapi.dto.SearchRequestDTO;
+import com.example.filenetapi.service.CapacityExceededException;
+import com.example.filenetapi.service.ChangeQuery;
+import com.example.filenetapi.service.ColumnarResults;
+import com.example.filenetapi.service.ConcurrencyLimiter;
+import com.example.filenetapi.service.DocumentContent;
 import com.example.filenetapi.service.DocumentService;
+import com.example.filenetapi.service.FileNetMetrics;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,22 +24,52 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/documents")
 @Tag(name = "Document Operations", description = "APIs for managing documents in FileNet P8")
 public class DocumentController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String COLUMNAR_VALUE = "application/vnd.filenet.columnar+json";
+    private static final MediaType COLUMNAR = MediaType.parseMediaType(COLUMNAR_VALUE);
+    private static final String LAYOUT_DESCRIPTION = "Result layout: rows (default) or columnar, a header of column names"
+            + " plus one value array per document. Accept " + COLUMNAR_VALUE + " implies columnar;"
+            + " Accept application/x-jackson-smile or application/cbor selects a binary encoding of either layout";
+
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FileNetMetrics metrics;
+
+    @Value("${filenet.content.max-range-offset:268435456}")
+    private long maxRangeOffset;
+
     @Operation(summary = "Create a new document", description = "Upload a file to create a new document in FileNet")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Document created successfully"),
@@ -38,36 +82,267 @@ public class DocumentController {
         try {
             String documentId = documentService.createDocument(file, documentClass);
             return ResponseEntity.ok().body(documentId);
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Create a new document from a raw stream",
+              description = "Stream the request body straight into a new FileNet document without buffering it")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Document created successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input"),
+        @ApiResponse(responseCode = "411", description = "Content-Length header missing"),
+        @ApiResponse(responseCode = "413", description = "Upload larger than the node's in-flight upload budget"),
+        @ApiResponse(responseCode = "503", description = "Upload budget exhausted, retry later")
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> createDocumentStream(
+            @Parameter(description = "Document class in FileNet") @RequestParam("documentClass") String documentClass,
+            @Parameter(description = "MIME type of the content") @RequestParam(value = "mimeType", defaultValue = MediaType.APPLICATION_OCTET_STREAM_VALUE) String mimeType,
+            @Parameter(description = "Retrieval name of the content") @RequestParam(value = "fileName", required = false) String fileName,
+            HttpServletRequest request) {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).body("Content-Length header is required");
+        }
+        try (InputStream content = request.getInputStream()) {
+            String documentId = documentService.createDocument(content, contentLength, documentClass, mimeType, fileName);
+            return ResponseEntity.ok().body(documentId);
+        } catch (MaxUploadSizeExceededException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Create a multi-element document",
+              description = "Upload several files as the ordered content elements of one document. The body counts against"
+                      + " the upload budget by its Content-Length before the container spools the parts; they are then"
+                      + " read and checksummed in parallel while streaming to FileNet")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Document created successfully",
+                    content = @Content(schema = @Schema(implementation = DocumentCreatedDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid input or checksum mismatch"),
+        @ApiResponse(responseCode = "413", description = "Upload larger than the node's in-flight upload budget"),
+        @ApiResponse(responseCode = "503", description = "Upload budget exhausted, retry later")
+    })
+    @PostMapping(value = "/multi-content", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> createMultiContentDocument(
+            @Parameter(description = "Files to upload, in content element order") @RequestParam("files") MultipartFile[] files,
+            @Parameter(description = "Document class in FileNet") @RequestParam("documentClass") String documentClass,
+            @Parameter(description = "Expected SHA-256 per file, hex encoded") @RequestParam(value = "checksums", required = false) String[] checksums) {
+        try {
+            DocumentCreatedDTO created = documentService.createDocument(files, documentClass, checksums);
+            return ResponseEntity.ok(created);
+        } catch (MaxUploadSizeExceededException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Create documents in batches",
+              description = "Upload many files at once; they are committed to FileNet in atomic batches and reported per item."
+                      + " The body counts against the upload budget by its Content-Length before the container spools the"
+                      + " files. Without a Content-Length each batch reserves its own bytes, and once a batch has committed,"
+                      + " batches refused for capacity are reported as REJECTED rather than failing the request")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Batch processed; see per-item status",
+                    content = @Content(schema = @Schema(implementation = BatchItemResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid input"),
+        @ApiResponse(responseCode = "413", description = "Request body larger than the node's in-flight upload budget"),
+        @ApiResponse(responseCode = "503", description = "Upload budget exhausted before the body was read, retry later")
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> createDocuments(
+            @Parameter(description = "Files to upload") @RequestParam("files") MultipartFile[] files,
+            @Parameter(description = "Document class in FileNet") @RequestParam("documentClass") String documentClass,
+            @Parameter(description = "Pre-assigned document IDs, one per file") @RequestParam(value = "ids", required = false) String[] ids,
+            @Parameter(description = "Documents per FileNet batch commit") @RequestParam(value = "batchSize", defaultValue = "0") int batchSize,
+            @Parameter(description = "Refresh created documents from the server") @RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
+        try {
+            List<BatchItemResultDTO> results = documentService.createDocuments(files, ids, documentClass, batchSize, refresh);
+            return ResponseEntity.ok(results);
+        } catch (MaxUploadSizeExceededException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
-    @Operation(summary = "Get document by ID", description = "Retrieve a document's metadata by its ID")
+    @Operation(summary = "Get document by ID",
+              description = "Retrieve a document's metadata by its ID. Responses carry a strong ETag; send it back"
+                      + " in If-None-Match to get a 304 without the properties being fetched again")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Document found",
                     content = @Content(schema = @Schema(implementation = DocumentPropertiesDTO.class))),
-        @ApiResponse(responseCode = "404", description = "Document not found")
+        @ApiResponse(responseCode = "304", description = "Document unchanged since the ETag in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Invalid field name"),
+        @ApiResponse(responseCode = "404", description = "Document not found"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<?> getDocument(@Parameter(description = "Document ID") @PathVariable String id) {
+    public ResponseEntity<?> getDocument(
+            @Parameter(description = "Document ID") @PathVariable String id,
+            @Parameter(description = "Custom properties to return; all properties when omitted") @RequestParam(value = "fields", required = false) String[] fields,
+            @RequestHeader HttpHeaders requestHeaders) {
         try {
-            return ResponseEntity.ok(documentService.getDocument(id));
+            List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+            if (!ifNoneMatch.isEmpty()) {
+                String etag = documentService.getDocumentETag(id, fields);
+                if (etag != null && matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+
+            DocumentPropertiesDTO document = documentService.getDocument(id, fields);
+            String etag = DocumentService.etag(document, fields);
+            return etag != null ? ResponseEntity.ok().eTag(etag).body(document) : ResponseEntity.ok(document);
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @Operation(summary = "Download document content",
+              description = "Stream a content element of a document, honouring Range and If-Range requests. A range starting"
+                      + " beyond filenet.content.max-range-offset of content not cached locally is answered with the full content")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Full content returned"),
+        @ApiResponse(responseCode = "206", description = "Requested byte range returned"),
+        @ApiResponse(responseCode = "404", description = "Document or content element not found"),
+        @ApiResponse(responseCode = "416", description = "Requested range not satisfiable"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
+    })
+    @GetMapping("/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getDocumentContent(
+            @Parameter(description = "Document ID") @PathVariable String id,
+            @Parameter(description = "Content element index") @RequestParam(value = "element", defaultValue = "0") int element,
+            @RequestHeader HttpHeaders requestHeaders) {
+        DocumentContent content;
+        try {
+            content = documentService.getDocumentContent(id, element);
+        } catch (CapacityExceededException e) {
+            return streamUnavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long length = content.getContentLength();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(content.getEtag());
+        headers.setLastModified(content.getDateLastModified().getTime());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setContentType(MediaType.parseMediaType(content.getMimeType() != null
+                ? content.getMimeType() : MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        if (content.getRetrievalName() != null) {
+            headers.setContentDisposition(ContentDisposition.inline()
+                    .filename(content.getRetrievalName(), StandardCharsets.UTF_8).build());
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+
+        // A stale If-Range validator means the client gets the whole, current representation
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        boolean rangeApplies = ranges.size() == 1 && (ifRange == null || ifRange.equals(content.getEtag()));
+        if (!rangeApplies) {
+            headers.setContentLength(length);
+            return streamContent(content, 0, length, headers, HttpStatus.OK);
+        }
+
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                    .build();
+        }
+
+        // The CE can only skip to a range by reading through it, so a far offset costs as much as the whole
+        // content while holding a permit; servers may ignore Range, so such requests get the full body instead
+        if (start > maxRangeOffset && content.getCachedFile() == null) {
+            headers.setContentLength(length);
+            return streamContent(content, 0, length, headers, HttpStatus.OK);
+        }
+
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        headers.setContentLength(end - start + 1);
+        return streamContent(content, start, end - start + 1, headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
     @Operation(summary = "Delete document", description = "Delete a document by its ID")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Document deleted successfully"),
-        @ApiResponse(responseCode = "400", description = "Error deleting document")
+        @ApiResponse(responseCode = "400", description = "Error deleting document"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteDocument(@Parameter(description = "Document ID") @PathVariable String id) {
         try {
             documentService.deleteDocument(id);
             return ResponseEntity.ok().build();
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Delete documents in bulk",
+              description = "Delete many documents by ID using batched, no-refresh round-trips")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Request processed; see per-ID status",
+                    content = @Content(schema = @Schema(implementation = BatchItemResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
+    })
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<?> deleteDocuments(
+            @Parameter(description = "Document IDs to delete") @RequestBody BulkRequestDTO bulkRequest) {
+        try {
+            return ResponseEntity.ok(documentService.deleteDocuments(bulkRequest.getIds()));
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get documents in bulk",
+              description = "Fetch metadata for many documents by ID using batched round-trips")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Request processed; see per-ID status",
+                    content = @Content(schema = @Schema(implementation = BatchItemResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
+    })
+    @PostMapping("/bulk-get")
+    public ResponseEntity<?> getDocuments(
+            @Parameter(description = "Document IDs to fetch and optional properties to include") @RequestBody BulkRequestDTO bulkRequest) {
+        try {
+            return ResponseEntity.ok(documentService.getDocuments(bulkRequest.getIds(), bulkRequest.getPropertiesToInclude()));
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -76,36 +351,296 @@ public class DocumentController {
     @Operation(summary = "Search documents (Simple)", description = "Search for documents using a simple SQL query")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Search completed successfully",
-                    content = @Content(schema = @Schema(implementation = DocumentPropertiesDTO.class))),
-        @ApiResponse(responseCode = "400", description = "Invalid search query")
+                    content = {@Content(schema = @Schema(implementation = DocumentPropertiesDTO.class)),
+                            @Content(mediaType = COLUMNAR_VALUE,
+                                    schema = @Schema(implementation = SearchColumnsDTO.class))}),
+        @ApiResponse(responseCode = "400", description = "Invalid search query"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
     })
     @GetMapping("/search")
     public ResponseEntity<?> searchDocuments(
             @Parameter(description = "SQL query") @RequestParam("sql") String sqlQuery,
-            @Parameter(description = "Maximum results to return") @RequestParam(value = "maxResults", defaultValue = "100") int maxResults) {
+            @Parameter(description = "Maximum results to return") @RequestParam(value = "maxResults", defaultValue = "100") int maxResults,
+            @Parameter(description = "Custom properties to fetch; all properties when omitted") @RequestParam(value = "properties", required = false) String[] properties,
+            @Parameter(description = LAYOUT_DESCRIPTION) @RequestParam(value = "layout", required = false) String layout,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
-            List<DocumentPropertiesDTO> results = documentService.searchDocuments(sqlQuery, maxResults);
-            return ResponseEntity.ok(results);
+            List<DocumentPropertiesDTO> results = documentService.searchDocuments(sqlQuery, maxResults, properties);
+            return ResponseEntity.ok(columnar(layout, accept) ? ColumnarResults.of(results, null) : results);
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @Operation(summary = "Search documents (Advanced)", 
-              description = "Advanced search for documents with filtering, pagination, and sorting")
+              description = "Advanced search for documents with filtering, pagination, and sorting. offset is applied"
+                      + " by reading and discarding the preceding rows, so its cost grows with the offset and it is capped"
+                      + " at filenet.search.max-offset; use POST /search/page to walk large result sets")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Search completed successfully",
-                    content = @Content(schema = @Schema(implementation = DocumentPropertiesDTO.class))),
-        @ApiResponse(responseCode = "400", description = "Invalid search request")
+                    content = {@Content(schema = @Schema(implementation = DocumentPropertiesDTO.class)),
+                            @Content(mediaType = COLUMNAR_VALUE,
+                                    schema = @Schema(implementation = SearchColumnsDTO.class))}),
+        @ApiResponse(responseCode = "400", description = "Invalid search request or offset above the maximum"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
     })
     @PostMapping("/search")
     public ResponseEntity<?> searchDocumentsAdvanced(
-            @Parameter(description = "Search request parameters") @RequestBody SearchRequestDTO searchRequest) {
+            @Parameter(description = "Search request parameters") @RequestBody SearchRequestDTO searchRequest,
+            @Parameter(description = LAYOUT_DESCRIPTION) @RequestParam(value = "layout", required = false) String layout,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         try {
             List<DocumentPropertiesDTO> results = documentService.searchDocumentsAdvanced(searchRequest);
-            return ResponseEntity.ok(results);
+            return ResponseEntity.ok(columnar(layout, accept) ? ColumnarResults.of(results, null) : results);
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Search documents (Paged)",
+              description = "Return one page of results plus a continuation token that resumes the search server-side")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Page returned successfully",
+                    content = {@Content(schema = @Schema(implementation = SearchPageDTO.class)),
+                            @Content(mediaType = COLUMNAR_VALUE,
+                                    schema = @Schema(implementation = SearchColumnsDTO.class))}),
+        @ApiResponse(responseCode = "400", description = "Invalid search request or expired continuation token"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
+    })
+    @PostMapping("/search/page")
+    public ResponseEntity<?> searchDocumentsPage(
+            @Parameter(description = "Search request parameters; pass continuationToken to fetch the next page") @RequestBody SearchRequestDTO searchRequest,
+            @Parameter(description = LAYOUT_DESCRIPTION) @RequestParam(value = "layout", required = false) String layout,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            SearchPageDTO page = documentService.searchDocumentsPage(searchRequest);
+            if (columnar(layout, accept)) {
+                return ResponseEntity.ok(ColumnarResults.of(page.getResults(), page.getContinuationToken()));
+            }
+            return ResponseEntity.ok(page);
+        } catch (CapacityExceededException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Search documents (Streaming)",
+              description = "Stream every matching document as newline-delimited JSON, one object per line")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Results streamed successfully"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
+    })
+    @PostMapping(value = "/search/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> searchDocumentsStream(
+            @Parameter(description = "Search request parameters; maxResults sets the page size") @RequestBody SearchRequestDTO searchRequest) {
+        // Admission happens before the response is committed, so overload is a clean 503 rather than a cut-off stream
+        ConcurrencyLimiter.Permit permit;
+        try {
+            permit = documentService.acquireSearchPermit();
+        } catch (CapacityExceededException e) {
+            return streamUnavailable(e);
+        }
+
+        StreamingResponseBody body = ndjson(permit, "stream",
+                rows -> documentService.streamDocuments(searchRequest, rows::write));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    @Operation(summary = "Search documents across object stores (Streaming)",
+              description = "Run the query against every configured object store in parallel and stream the results,"
+                      + " merged by orderBy, as newline-delimited JSON. Stores that time out are skipped and listed"
+                      + " in a final {\"skippedObjectStores\": [...]} line. Sort keys missing from propertiesToInclude"
+                      + " are added to it. Rows are merged with Java ordering (String.compareTo for text), which may"
+                      + " differ from the object store's collation for case or accented characters")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Results streamed successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown object store requested"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
+    })
+    @PostMapping(value = "/search/federated", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> searchDocumentsFederated(
+            @Parameter(description = "Search request parameters; objectStores narrows the stores searched, maxResults sets the page size") @RequestBody SearchRequestDTO searchRequest) {
+        List<String> objectStores;
+        ConcurrencyLimiter.Permit permit;
+        try {
+            objectStores = documentService.resolveObjectStores(searchRequest);
+            permit = documentService.acquireSearchPermit();
+        } catch (CapacityExceededException e) {
+            return streamUnavailable(e);
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage();
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        StreamingResponseBody body = ndjson(permit, "federated", rows -> {
+            List<String> skipped = documentService.streamDocumentsAcrossStores(objectStores, searchRequest, rows::write);
+            if (!skipped.isEmpty()) {
+                rows.write(List.of(Map.of("skippedObjectStores", skipped)));
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    @Operation(summary = "Change feed (Streaming)",
+              description = "Stream documents modified since a watermark, oldest first, as newline-delimited"
+                      + " {type, id, changedAt, document} lines. Deletions follow as DELETED lines when deletion"
+                      + " tracking is enabled; they cover every deleted object, not only the requested class. The"
+                      + " final line is {\"watermark\": ..., \"hasMore\": ...}; pass the watermark as since to resume")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Changes streamed successfully",
+                    content = @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = ChangeDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid watermark, document class or property name"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore capacity exhausted, retry later")
+    })
+    @GetMapping(value = "/changes", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getChanges(
+            @Parameter(description = "Watermark from a previous response, or an ISO-8601 instant; a full sync when omitted") @RequestParam(value = "since", required = false) String since,
+            @Parameter(description = "Document class to follow, including subclasses") @RequestParam(value = "documentClass", required = false) String documentClass,
+            @Parameter(description = "Custom properties to fetch; all properties when omitted") @RequestParam(value = "properties", required = false) String[] properties) {
+        ChangeQuery query;
+        ConcurrencyLimiter.Permit permit;
+        try {
+            query = documentService.prepareChanges(since, documentClass, properties);
+            permit = documentService.acquireSearchPermit();
+        } catch (CapacityExceededException e) {
+            return streamUnavailable(e);
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage();
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        StreamingResponseBody body = ndjson(permit, "changes",
+                rows -> rows.write(List.of(documentService.streamChanges(query, rows::write))));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    private StreamingResponseBody ndjson(ConcurrencyLimiter.Permit permit, String mode, NdjsonSource source) {
+        return out -> {
+            CountingOutputStream counted = new CountingOutputStream(out);
+            long[] serializationNanos = new long[1];
+            try (permit; JsonGenerator generator = objectMapper.getFactory().createGenerator(counted)) {
+                generator.setRootValueSeparator(null);
+                source.writeTo(rows -> {
+                    long start = System.nanoTime();
+                    for (Object row : rows) {
+                        generator.writeObject(row);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                    serializationNanos[0] += System.nanoTime() - start;
+                });
+            } catch (IOException e) {
+                // Client went away; the service abandons its page iterators
+            } catch (Exception e) {
+                throw new IllegalStateException("Search stream failed: " + e.getMessage(), e);
+            } finally {
+                metrics.recordSerialization(mode, counted.getCount(), serializationNanos[0]);
+            }
+        };
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamContent(DocumentContent content, long start, long count,
+                                                                HttpHeaders headers, HttpStatus status) {
+        // Cache hits are served from local disk and never touch the CE, so they bypass the content bulkhead;
+        // a hit evicted before it is opened takes a permit itself before falling back to the CE
+        if (content.getCachedFile() != null) {
+            StreamingResponseBody body = out -> documentService.copyContent(content, start, count, out);
+            return new ResponseEntity<>(body, headers, status);
+        }
+
+        ConcurrencyLimiter.Permit permit;
+        try {
+            permit = documentService.acquireContentPermit();
+        } catch (CapacityExceededException e) {
+            return streamUnavailable(e);
+        }
+
+        StreamingResponseBody body = out -> {
+            try (permit) {
+                documentService.copyContent(content, start, count, out);
+            }
+        };
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    // If-None-Match uses the weak comparison, so a W/ prefix added by a proxy still matches
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || etag.equals(candidate.startsWith("W/") ? candidate.substring(2) : candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The vendor type is served by the JSON converter (application/*+json), so negotiation needs no extra wiring
+    private static boolean columnar(String layout, String accept) {
+        if (layout != null) {
+            return ColumnarResults.LAYOUT.equalsIgnoreCase(layout);
+        }
+        if (accept == null) {
+            return false;
+        }
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            if (COLUMNAR.equalsTypeAndSubtype(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity<?> serviceUnavailable(CapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    // Streaming endpoints keep their StreamingResponseBody return type so Spring dispatches them asynchronously
+    private static ResponseEntity<StreamingResponseBody> streamUnavailable(CapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    private interface NdjsonSource {
+        void writeTo(RowWriter rows) throws Exception;
+    }
+
+    private interface RowWriter {
+        void write(List<?> rows) throws IOException;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.filenetapi.controller;
+
+import com.example.filenetapi.dto.IngestTicketDTO;
+import com.example.filenetapi.service.CapacityExceededException;
+import com.example.filenetapi.service.IngestQueue;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/documents/ingest")
+@Tag(name = "Async Ingest", description = "Queue uploads on local disk and create the documents in the background")
+public class IngestController {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    @Autowired
+    private IngestQueue ingestQueue;
+
+    @Operation(summary = "Queue a document for creation",
+              description = "Persist the request body to the local ingest log and return a ticket; the document is created asynchronously")
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Upload accepted",
+                    content = @Content(schema = @Schema(implementation = IngestTicketDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid input"),
+        @ApiResponse(responseCode = "403", description = "Async ingest disabled because caller credentials are passed through"),
+        @ApiResponse(responseCode = "409", description = "A request with the same idempotency key is still being accepted"),
+        @ApiResponse(responseCode = "411", description = "Content-Length header missing"),
+        @ApiResponse(responseCode = "503", description = "Ingest log full or not running, retry later")
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> enqueue(
+            @Parameter(description = "Document class in FileNet") @RequestParam("documentClass") String documentClass,
+            @Parameter(description = "MIME type of the content") @RequestParam(value = "mimeType", defaultValue = MediaType.APPLICATION_OCTET_STREAM_VALUE) String mimeType,
+            @Parameter(description = "Retrieval name of the content") @RequestParam(value = "fileName", required = false) String fileName,
+            @Parameter(description = "Client key that makes retries of this request return the original ticket") @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            HttpServletRequest request) {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).body("Content-Length header is required");
+        }
+        try (InputStream content = request.getInputStream()) {
+            IngestTicketDTO ticket = ingestQueue.enqueue(content, contentLength, documentClass, mimeType, fileName, idempotencyKey);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/documents/ingest/" + ticket.getTicketId()))
+                    .body(ticket);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (UnsupportedOperationException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (CapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get ingest ticket status", description = "Report whether a queued upload is pending, created or failed")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Ticket found",
+                    content = @Content(schema = @Schema(implementation = IngestTicketDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired ticket")
+    })
+    @GetMapping("/{ticketId}")
+    public ResponseEntity<IngestTicketDTO> getTicket(@Parameter(description = "Ingest ticket ID") @PathVariable String ticketId) {
+        IngestTicketDTO ticket = ingestQueue.get(ticketId);
+        return ticket != null ? ResponseEntity.ok(ticket) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.filenetapi.controller;
+
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.CacheStatsDTO;
+import com.example.filenetapi.dto.LimiterStatsDTO;
+import com.example.filenetapi.dto.SessionPoolStatsDTO;
+import com.example.filenetapi.service.Bulkheads;
+import com.example.filenetapi.service.ClassMetadataCache;
+import com.example.filenetapi.service.ContentCache;
+import com.example.filenetapi.service.DocumentMetadataCache;
+import com.example.filenetapi.service.SearchQueryPlanCache;
+import com.example.filenetapi.service.SearchResultCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@Tag(name = "Statistics", description = "Runtime statistics of connection pools and caches")
+public class StatsController {
+
+    @Autowired
+    private FileNetSessionManager sessionManager;
+
+    @Autowired
+    private DocumentMetadataCache metadataCache;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private SearchQueryPlanCache queryPlanCache;
+
+    @Autowired
+    private ClassMetadataCache classMetadataCache;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Operation(summary = "Session pool statistics", description = "Hits, misses and creation latency of cached FileNet sessions")
+    @GetMapping("/sessions")
+    public ResponseEntity<SessionPoolStatsDTO> getSessionStats() {
+        return ResponseEntity.ok(sessionManager.getStats());
+    }
+
+    @Operation(summary = "Metadata cache statistics", description = "Hit, miss and eviction counters of the document metadata cache")
+    @GetMapping("/metadata-cache")
+    public ResponseEntity<CacheStatsDTO> getMetadataCacheStats() {
+        return ResponseEntity.ok(metadataCache.getStats());
+    }
+
+    @Operation(summary = "Class metadata cache statistics", description = "Cached class descriptions and lookup hit/miss counters")
+    @GetMapping("/class-metadata")
+    public ResponseEntity<CacheStatsDTO> getClassMetadataStats() {
+        return ResponseEntity.ok(classMetadataCache.getStats());
+    }
+
+    @Operation(summary = "Search query plan cache statistics", description = "Hit, miss and eviction counters of the compiled search template cache")
+    @GetMapping("/query-plans")
+    public ResponseEntity<CacheStatsDTO> getQueryPlanStats() {
+        return ResponseEntity.ok(queryPlanCache.getStats());
+    }
+
+    @Operation(summary = "Search result cache statistics", description = "Hit, miss, coalesced-fetch and eviction counters plus retained bytes of the search result cache")
+    @GetMapping("/search-cache")
+    public ResponseEntity<CacheStatsDTO> getSearchCacheStats() {
+        return ResponseEntity.ok(searchResultCache.getStats());
+    }
+
+    @Operation(summary = "Content cache statistics", description = "Hit, miss, eviction and revalidation counters plus bytes on disk of the local content cache")
+    @GetMapping("/content-cache")
+    public ResponseEntity<CacheStatsDTO> getContentCacheStats() {
+        return ResponseEntity.ok(contentCache.getStats());
+    }
+
+    @Operation(summary = "Concurrency limiter statistics", description = "Current limit, in-flight calls and rejections per ObjectStore bulkhead")
+    @GetMapping("/limiters")
+    public ResponseEntity<List<LimiterStatsDTO>> getLimiterStats() {
+        return ResponseEntity.ok(bulkheads.getStats());
+    }
+}
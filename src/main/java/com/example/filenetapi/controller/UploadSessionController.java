@@ -0,0 +1,138 @@
+package com.example.filenetapi.controller;
+
+import com.example.filenetapi.dto.UploadChunkDTO;
+import com.example.filenetapi.dto.UploadSessionDTO;
+import com.example.filenetapi.dto.UploadSessionRequestDTO;
+import com.example.filenetapi.service.CapacityExceededException;
+import com.example.filenetapi.service.UploadSessionManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/documents/uploads")
+@Tag(name = "Upload Sessions", description = "Chunked, resumable uploads of large documents")
+public class UploadSessionController {
+
+    private static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
+
+    @Autowired
+    private UploadSessionManager uploadSessionManager;
+
+    @Operation(summary = "Start an upload session",
+              description = "Reserve a spool file for a document of the declared size; chunks may then be sent in any order and in parallel")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Session created",
+                    content = @Content(schema = @Schema(implementation = UploadSessionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid input"),
+        @ApiResponse(responseCode = "413", description = "Declared size exceeds the session limit"),
+        @ApiResponse(responseCode = "503", description = "Too many open sessions or spool space exhausted, retry later")
+    })
+    @PostMapping
+    public ResponseEntity<?> createSession(@RequestBody UploadSessionRequestDTO request) {
+        try {
+            return ResponseEntity.ok(uploadSessionManager.create(request));
+        } catch (MaxUploadSizeExceededException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        } catch (CapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Upload a chunk", description = "Write the request body at the given offset; re-sending an accepted chunk with the same bytes is a no-op")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Chunk stored",
+                    content = @Content(schema = @Schema(implementation = UploadChunkDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Out of range, short or checksum mismatch"),
+        @ApiResponse(responseCode = "409", description = "Session already committed, or the range overlaps a different or in-flight chunk"),
+        @ApiResponse(responseCode = "411", description = "Content-Length header missing")
+    })
+    @PutMapping(value = "/{sessionId}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadChunk(
+            @Parameter(description = "Upload session ID") @PathVariable String sessionId,
+            @Parameter(description = "Byte offset of the chunk within the document") @RequestParam("offset") long offset,
+            @Parameter(description = "Expected SHA-256 of the chunk, hex encoded") @RequestHeader(value = CHUNK_CHECKSUM_HEADER, required = false) String sha256,
+            HttpServletRequest request) {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            return ResponseEntity.status(HttpStatus.LENGTH_REQUIRED).body("Content-Length header is required");
+        }
+        try (InputStream content = request.getInputStream()) {
+            return ResponseEntity.ok(uploadSessionManager.writeChunk(sessionId, offset, contentLength, content, sha256));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Get upload session status", description = "List the chunks received so far, so an interrupted client can resume")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Session found",
+                    content = @Content(schema = @Schema(implementation = UploadSessionDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown or expired session")
+    })
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<?> getSession(@Parameter(description = "Upload session ID") @PathVariable String sessionId) {
+        try {
+            return ResponseEntity.ok(uploadSessionManager.get(sessionId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Commit an upload session", description = "Create the FileNet document from the spooled chunks once the whole range is covered")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Document created successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown session or invalid input"),
+        @ApiResponse(responseCode = "409", description = "Chunks missing or session already committed"),
+        @ApiResponse(responseCode = "503", description = "ObjectStore at capacity, retry later")
+    })
+    @PostMapping("/{sessionId}/commit")
+    public ResponseEntity<?> commitSession(@Parameter(description = "Upload session ID") @PathVariable String sessionId) {
+        try {
+            return ResponseEntity.ok().body(uploadSessionManager.commit(sessionId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (CapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Abort an upload session", description = "Discard the session and its spooled chunks")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Session discarded"),
+        @ApiResponse(responseCode = "400", description = "Unknown or expired session")
+    })
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<?> abortSession(@Parameter(description = "Upload session ID") @PathVariable String sessionId) {
+        try {
+            uploadSessionManager.abort(sessionId);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.filenetapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDTO {
+
+    public enum Status {
+        CREATED, DELETED, FOUND, NOT_FOUND, FAILED, REJECTED
+    }
+
+    private int index;
+    private String id;
+    private String fileName;
+    private Status status;
+    private String error;
+    private DocumentPropertiesDTO document;
+}
@@ -0,0 +1,10 @@
+package com.example.filenetapi.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkRequestDTO {
+    private List<String> ids;
+    private String[] propertiesToInclude;
+}
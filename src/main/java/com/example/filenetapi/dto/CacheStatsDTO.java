@@ -0,0 +1,19 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CacheStatsDTO {
+    private long size;
+    private long maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    private long coalesced;
+    private long weightBytes;
+    private long maxWeightBytes;
+}
@@ -0,0 +1,22 @@
+package com.example.filenetapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeDTO {
+
+    public enum Type {
+        MODIFIED, DELETED
+    }
+
+    private Type type;
+    private String id;
+    private Date changedAt;
+    private DocumentPropertiesDTO document;
+}
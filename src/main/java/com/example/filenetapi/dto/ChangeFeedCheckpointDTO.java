@@ -0,0 +1,11 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ChangeFeedCheckpointDTO {
+    private String watermark;
+    private boolean hasMore;
+}
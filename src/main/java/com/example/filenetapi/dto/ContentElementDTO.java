@@ -0,0 +1,14 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ContentElementDTO {
+    private int index;
+    private String fileName;
+    private String mimeType;
+    private long size;
+    private String sha256;
+}
@@ -0,0 +1,13 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class DocumentCreatedDTO {
+    private String id;
+    private List<ContentElementDTO> contentElements;
+}
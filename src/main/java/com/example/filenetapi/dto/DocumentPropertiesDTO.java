@@ -1,5 +1,6 @@
 package com.example.filenetapi.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 import java.util.Date;
@@ -17,4 +18,6 @@ public class DocumentPropertiesDTO {
     private String creator;
     private String lastModifier;
     private Map<String, Object> customProperties;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String objectStore;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.filenetapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestTicketDTO {
+
+    public enum Status {
+        QUEUED, IN_PROGRESS, COMPLETED, FAILED
+    }
+
+    private String ticketId;
+    private Status status;
+    private String documentId;
+    private String documentClass;
+    private String fileName;
+    private long contentLength;
+    private int attempts;
+    private String error;
+    private Date submittedAt;
+    private Date completedAt;
+}
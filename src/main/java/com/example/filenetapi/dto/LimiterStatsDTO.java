@@ -0,0 +1,15 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LimiterStatsDTO {
+    private String name;
+    private int limit;
+    private int minLimit;
+    private int maxLimit;
+    private int inFlight;
+    private long rejected;
+}
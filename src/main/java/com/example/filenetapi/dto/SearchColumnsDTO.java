@@ -0,0 +1,15 @@
+package com.example.filenetapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class SearchColumnsDTO {
+    private List<String> columns;
+    private List<List<Object>> rows;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String continuationToken;
+}
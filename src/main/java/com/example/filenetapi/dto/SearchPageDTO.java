@@ -0,0 +1,12 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class SearchPageDTO {
+    private List<DocumentPropertiesDTO> results;
+    private String continuationToken;
+}
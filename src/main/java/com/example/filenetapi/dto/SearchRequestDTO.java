@@ -12,4 +12,6 @@ public class SearchRequestDTO {
     private String[] propertiesToInclude;
     private String orderBy;
     private boolean ascending = true;
+    private String continuationToken;
+    private String[] objectStores;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SessionPoolStatsDTO {
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long creationFailures;
+    private double averageCreationMillis;
+    private double maxCreationMillis;
+}
@@ -0,0 +1,12 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UploadChunkDTO {
+    private long offset;
+    private long length;
+    private String sha256;
+}
@@ -0,0 +1,20 @@
+package com.example.filenetapi.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Date;
+import java.util.List;
+
+@Data
+@Builder
+public class UploadSessionDTO {
+    private String sessionId;
+    private String documentClass;
+    private String fileName;
+    private String mimeType;
+    private long totalSize;
+    private long receivedBytes;
+    private List<UploadChunkDTO> chunks;
+    private Date expiresAt;
+}
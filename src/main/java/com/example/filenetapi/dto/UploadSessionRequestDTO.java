@@ -0,0 +1,11 @@
+package com.example.filenetapi.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadSessionRequestDTO {
+    private String documentClass;
+    private String fileName;
+    private String mimeType;
+    private long totalSize;
+}
@@ -0,0 +1,61 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.LimiterStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+public class Bulkheads {
+
+    private final ConcurrencyLimiter search;
+    private final ConcurrencyLimiter content;
+    private final ConcurrencyLimiter metadata;
+
+    @Autowired
+    public Bulkheads(@Value("${filenet.limiter.search.initial-limit:20}") int searchInitialLimit,
+                     @Value("${filenet.limiter.search.min-limit:1}") int searchMinLimit,
+                     @Value("${filenet.limiter.search.max-limit:80}") int searchMaxLimit,
+                     @Value("${filenet.limiter.search.latency-threshold:PT5S}") Duration searchLatencyThreshold,
+                     @Value("${filenet.limiter.content.initial-limit:40}") int contentInitialLimit,
+                     @Value("${filenet.limiter.content.min-limit:1}") int contentMinLimit,
+                     @Value("${filenet.limiter.content.max-limit:160}") int contentMaxLimit,
+                     @Value("${filenet.limiter.content.latency-threshold:PT2S}") Duration contentLatencyThreshold,
+                     @Value("${filenet.limiter.metadata.initial-limit:50}") int metadataInitialLimit,
+                     @Value("${filenet.limiter.metadata.min-limit:1}") int metadataMinLimit,
+                     @Value("${filenet.limiter.metadata.max-limit:200}") int metadataMaxLimit,
+                     @Value("${filenet.limiter.metadata.latency-threshold:PT1S}") Duration metadataLatencyThreshold,
+                     @Value("${filenet.limiter.retry-after-seconds:1}") long retryAfterSeconds) {
+        this(new ConcurrencyLimiter("search", searchInitialLimit, searchMinLimit, searchMaxLimit,
+                        searchLatencyThreshold.toNanos(), retryAfterSeconds),
+                new ConcurrencyLimiter("content", contentInitialLimit, contentMinLimit, contentMaxLimit,
+                        contentLatencyThreshold.toNanos(), retryAfterSeconds),
+                new ConcurrencyLimiter("metadata", metadataInitialLimit, metadataMinLimit, metadataMaxLimit,
+                        metadataLatencyThreshold.toNanos(), retryAfterSeconds));
+    }
+
+    public Bulkheads(ConcurrencyLimiter search, ConcurrencyLimiter content, ConcurrencyLimiter metadata) {
+        this.search = search;
+        this.content = content;
+        this.metadata = metadata;
+    }
+
+    public ConcurrencyLimiter search() {
+        return search;
+    }
+
+    public ConcurrencyLimiter content() {
+        return content;
+    }
+
+    public ConcurrencyLimiter metadata() {
+        return metadata;
+    }
+
+    public List<LimiterStatsDTO> getStats() {
+        return List.of(search.getStats(), content.getStats(), metadata.getStats());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.filenetapi.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ChangeQuery {
+    private final ChangeWatermark watermark;
+    private final String documentClass;
+    private final String[] propertiesToInclude;
+}
@@ -0,0 +1,93 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.util.Id;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+
+// Keyset position in the change feed: the last (DateLastModified, Id) emitted and the last deletion event seen
+public final class ChangeWatermark {
+
+    private static final String VERSION = "1";
+
+    private final long modifiedAt;
+    private final String modifiedId;
+    private final long deletedAt;
+    private final String deletedId;
+
+    ChangeWatermark(long modifiedAt, String modifiedId, long deletedAt, String deletedId) {
+        this.modifiedAt = modifiedAt;
+        this.modifiedId = modifiedId;
+        this.deletedAt = deletedAt;
+        this.deletedId = deletedId;
+    }
+
+    public static ChangeWatermark parse(String since, long now) {
+        // No watermark is a full initial sync; deletions before it are of nothing the consumer holds
+        if (since == null || since.isEmpty()) {
+            return new ChangeWatermark(0, null, now, null);
+        }
+
+        // An ISO-8601 instant bootstraps a consumer; tokens from earlier responses resume exactly
+        try {
+            long at = Instant.parse(since).toEpochMilli();
+            return new ChangeWatermark(at, null, at, null);
+        } catch (DateTimeParseException e) {
+            // Not an instant, so it must be a token
+        }
+
+        try {
+            String[] fields = new String(Base64.getUrlDecoder().decode(since), StandardCharsets.UTF_8).split("\\|", -1);
+            if (fields.length == 5 && VERSION.equals(fields[0])) {
+                return new ChangeWatermark(Long.parseLong(fields[1]), id(fields[2]), Long.parseLong(fields[3]), id(fields[4]));
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below
+        }
+        throw new IllegalArgumentException("Invalid change watermark: " + since);
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, String.valueOf(modifiedAt), modifiedId != null ? modifiedId : "",
+                String.valueOf(deletedAt), deletedId != null ? deletedId : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    ChangeWatermark afterModified(Date at, String id) {
+        return new ChangeWatermark(at.getTime(), id, deletedAt, deletedId);
+    }
+
+    ChangeWatermark afterDeleted(Date at, String id) {
+        return new ChangeWatermark(modifiedAt, modifiedId, at.getTime(), id);
+    }
+
+    long getModifiedAt() {
+        return modifiedAt;
+    }
+
+    String getModifiedId() {
+        return modifiedId;
+    }
+
+    long getDeletedAt() {
+        return deletedAt;
+    }
+
+    String getDeletedId() {
+        return deletedId;
+    }
+
+    private static String id(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        // IDs end up in CE SQL, so only well-formed GUIDs are accepted back
+        if (!Id.isId(value)) {
+            throw new IllegalArgumentException("Invalid ID in change watermark");
+        }
+        return new Id(value).toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.filenetapi.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Set;
+
+@Getter
+@Builder
+public class ClassMetadata {
+    private final String symbolicName;
+    private final String classId;
+    private final String superclassName;
+    private final Set<String> propertyNames;
+
+    public boolean hasProperty(String propertyName) {
+        return propertyNames.contains(propertyName);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.CacheStatsDTO;
+import com.filenet.api.core.Factory;
+import com.filenet.api.core.ObjectStore;
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
+import com.filenet.api.meta.ClassDescription;
+import com.filenet.api.meta.PropertyDescription;
+import com.filenet.api.util.Id;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ClassMetadataCache {
+
+    @Autowired
+    private FileNetSessionManager sessionManager;
+
+    @Value("${filenet.cache.class.warm-classes:Document}")
+    private List<String> warmClasses;
+
+    @Value("${filenet.cache.class.warm-max-classes:500}")
+    private int warmMaxClasses;
+
+    // Keyed by symbolic name and by class ID, both scoped to the object store
+    private final Map<String, ClassMetadata> classes = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ClassMetadata get(ObjectStore objectStore, String classNameOrId) {
+        String key = key(objectStore.get_SymbolicName(), classNameOrId);
+        ClassMetadata metadata = classes.get(key);
+        if (metadata != null) {
+            hits.incrementAndGet();
+            return metadata;
+        }
+        misses.incrementAndGet();
+        return put(objectStore.get_SymbolicName(), fetch(objectStore, classNameOrId));
+    }
+
+    public void invalidate(ObjectStore objectStore, String classNameOrId) {
+        ClassMetadata removed = classes.remove(key(objectStore.get_SymbolicName(), classNameOrId));
+        if (removed != null) {
+            classes.remove(key(objectStore.get_SymbolicName(), removed.getSymbolicName()));
+            if (removed.getClassId() != null) {
+                classes.remove(key(objectStore.get_SymbolicName(), removed.getClassId()));
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        // Load the configured class trees once so the first searches never pay for metadata round-trips
+        try {
+            FileNetSession session = sessionManager.serviceSession();
+            try (FileNetSessionManager.Binding binding = sessionManager.bind(session)) {
+                for (String storeName : sessionManager.getObjectStoreNames()) {
+                    ObjectStore objectStore = session.getObjectStore(storeName);
+                    for (String root : warmClasses) {
+                        warmClassTree(objectStore, root.trim());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // The CE may be unreachable at startup; entries then load lazily on first use
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filenet.cache.class.refresh-interval:PT30M}",
+               initialDelayString = "${filenet.cache.class.refresh-interval:PT30M}")
+    public void refresh() {
+        try {
+            FileNetSession session = sessionManager.serviceSession();
+            try (FileNetSessionManager.Binding binding = sessionManager.bind(session)) {
+                refreshAll(session);
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the current entries; the next run tries again
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        return CacheStatsDTO.builder()
+                .size(classes.values().stream().distinct().count())
+                .hits(hits.get())
+                .misses(misses.get())
+                .build();
+    }
+
+    private void refreshAll(FileNetSession session) {
+        for (Map.Entry<String, ClassMetadata> entry : classes.entrySet()) {
+            // Each class is stored under two keys; refresh it once, via its symbolic name
+            String storeName = entry.getKey().substring(0, entry.getKey().indexOf('/'));
+            if (!entry.getKey().equals(key(storeName, entry.getValue().getSymbolicName()))) {
+                continue;
+            }
+            try {
+                // Readers keep the previous entry until the new one replaces it
+                put(storeName, fetch(session.getObjectStore(storeName), entry.getValue().getSymbolicName()));
+            } catch (EngineRuntimeException e) {
+                if (e.getExceptionCode() != ExceptionCode.E_OBJECT_NOT_FOUND) {
+                    throw e;
+                }
+                // Deleted since it was cached; drop both keys so lookups report it missing
+                classes.remove(entry.getKey());
+                if (entry.getValue().getClassId() != null) {
+                    classes.remove(key(storeName, entry.getValue().getClassId()));
+                }
+            }
+        }
+    }
+
+    private void warmClassTree(ObjectStore objectStore, String root) {
+        Deque<ClassDescription> pending = new ArrayDeque<>();
+        pending.add(Factory.ClassDescription.fetchInstance(objectStore, root, null));
+        int loaded = 0;
+        while (!pending.isEmpty() && loaded < warmMaxClasses) {
+            ClassDescription description = pending.poll();
+            put(objectStore.get_SymbolicName(), toMetadata(description));
+            loaded++;
+            Iterator<?> subclasses = description.get_ImmediateSubclassDescriptions().iterator();
+            while (subclasses.hasNext()) {
+                pending.add((ClassDescription) subclasses.next());
+            }
+        }
+    }
+
+    private ClassMetadata put(String storeName, ClassMetadata metadata) {
+        classes.put(key(storeName, metadata.getSymbolicName()), metadata);
+        if (metadata.getClassId() != null) {
+            classes.put(key(storeName, metadata.getClassId()), metadata);
+        }
+        return metadata;
+    }
+
+    private ClassMetadata fetch(ObjectStore objectStore, String classNameOrId) {
+        return toMetadata(Factory.ClassDescription.fetchInstance(objectStore, classNameOrId, null));
+    }
+
+    private static ClassMetadata toMetadata(ClassDescription description) {
+        // CE SQL identifiers are case-insensitive
+        Set<String> propertyNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (Object property : description.get_PropertyDescriptions()) {
+            propertyNames.add(((PropertyDescription) property).get_SymbolicName());
+        }
+
+        ClassDescription superclass = description.get_SuperclassDescription();
+        return ClassMetadata.builder()
+                .symbolicName(description.get_SymbolicName())
+                .classId(description.get_Id() != null ? description.get_Id().toString() : null)
+                .superclassName(superclass != null ? superclass.get_SymbolicName() : null)
+                .propertyNames(Collections.unmodifiableSet(propertyNames))
+                .build();
+    }
+
+    private static String key(String storeName, String classNameOrId) {
+        // Canonicalise GUIDs so "{abc-...}" and "ABC-..." share one entry
+        return storeName + "/" + (Id.isId(classNameOrId) ? new Id(classNameOrId).toString() : classNameOrId.toLowerCase());
+    }
+}
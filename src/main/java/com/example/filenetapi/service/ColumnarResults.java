@@ -0,0 +1,76 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.example.filenetapi.dto.SearchColumnsDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ColumnarResults {
+
+    public static final String LAYOUT = "columnar";
+
+    private static final String CUSTOM_PREFIX = "customProperties.";
+    private static final List<String> FIXED_COLUMNS = List.of(
+            "id", "name", "documentClass", "mimeType", "dateCreated",
+            "dateLastModified", "creator", "lastModifier");
+
+    private ColumnarResults() {
+    }
+
+    public static SearchColumnsDTO of(List<DocumentPropertiesDTO> results, String continuationToken) {
+        // Custom columns are the union across rows in first-seen order; rows without a value carry null
+        boolean federated = false;
+        Map<String, Integer> customColumns = new LinkedHashMap<>();
+        for (DocumentPropertiesDTO dto : results) {
+            federated |= dto.getObjectStore() != null;
+            if (dto.getCustomProperties() != null) {
+                for (String name : dto.getCustomProperties().keySet()) {
+                    customColumns.putIfAbsent(name, customColumns.size());
+                }
+            }
+        }
+
+        int fixed = FIXED_COLUMNS.size() + (federated ? 1 : 0);
+        List<String> columns = new ArrayList<>(fixed + customColumns.size());
+        columns.addAll(FIXED_COLUMNS);
+        if (federated) {
+            columns.add("objectStore");
+        }
+        for (String name : customColumns.keySet()) {
+            columns.add(CUSTOM_PREFIX + name);
+        }
+
+        List<List<Object>> rows = new ArrayList<>(results.size());
+        for (DocumentPropertiesDTO dto : results) {
+            Object[] row = new Object[columns.size()];
+            row[0] = dto.getId();
+            row[1] = dto.getName();
+            row[2] = dto.getDocumentClass();
+            row[3] = dto.getMimeType();
+            row[4] = dto.getDateCreated();
+            row[5] = dto.getDateLastModified();
+            row[6] = dto.getCreator();
+            row[7] = dto.getLastModifier();
+            if (federated) {
+                row[8] = dto.getObjectStore();
+            }
+            Map<String, Object> custom = dto.getCustomProperties() != null
+                    ? dto.getCustomProperties() : Collections.emptyMap();
+            for (Map.Entry<String, Object> entry : custom.entrySet()) {
+                row[fixed + customColumns.get(entry.getKey())] = entry.getValue();
+            }
+            rows.add(Arrays.asList(row));
+        }
+
+        return SearchColumnsDTO.builder()
+                .columns(columns)
+                .rows(rows)
+                .continuationToken(continuationToken)
+                .build();
+    }
+}
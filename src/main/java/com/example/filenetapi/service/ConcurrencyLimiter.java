@@ -0,0 +1,149 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.LimiterStatsDTO;
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    // CE failures that mean the server or the path to it is struggling; everything else is the caller's problem
+    private static final Set<ExceptionCode> OVERLOAD_CODES = Set.of(
+            ExceptionCode.API_UNABLE_TO_USE_CONNECTION,
+            ExceptionCode.TRANSPORT_WSI_NETWORK_ERROR);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final long retryAfterSeconds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    public ConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                              long latencyThresholdNanos, long retryAfterSeconds) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public Permit acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                throw new CapacityExceededException(
+                        name + " capacity exhausted (" + current + " calls in flight), retry later", retryAfterSeconds);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit();
+            }
+        }
+    }
+
+    public <T> T call(LimitedCall<T> call) throws Exception {
+        try (Permit permit = acquire()) {
+            long start = System.nanoTime();
+            T result = callObservingFailures(call);
+            onSample(System.nanoTime() - start);
+            return result;
+        }
+    }
+
+    // For calls whose duration is not CE latency (client-paced uploads, whole batches); the caller samples CE time itself
+    public <T> T callUnsampled(LimitedCall<T> call) throws Exception {
+        try (Permit permit = acquire()) {
+            return callObservingFailures(call);
+        }
+    }
+
+    public synchronized void onSample(long latencyNanos) {
+        // AIMD: back off multiplicatively when the CE slows down, probe upwards by ~1 per window otherwise
+        if (latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        } else if (inFlight.get() * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    public synchronized void onDrop() {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+
+    private <T> T callObservingFailures(LimitedCall<T> call) throws Exception {
+        try {
+            return call.call();
+        } catch (Exception e) {
+            if (isOverload(e)) {
+                onDrop();
+            }
+            throw e;
+        }
+    }
+
+    static boolean isOverload(Throwable e) {
+        // Only timeouts and connectivity failures count: bad SQL, bad values or unknown classes are caller errors,
+        // and letting them back off would let one client shrink the limit for everyone
+        for (Throwable t = e; t != null; t = t.getCause() != t ? t.getCause() : null) {
+            if (t instanceof TimeoutException || t instanceof SocketTimeoutException || t instanceof ConnectException) {
+                return true;
+            }
+            if (t instanceof EngineRuntimeException
+                    && OVERLOAD_CODES.contains(((EngineRuntimeException) t).getExceptionCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public LimiterStatsDTO getStats() {
+        return LimiterStatsDTO.builder()
+                .name(name)
+                .limit((int) limit)
+                .minLimit(minLimit)
+                .maxLimit(maxLimit)
+                .inFlight(inFlight.get())
+                .rejected(rejected.get())
+                .build();
+    }
+
+    public interface LimitedCall<T> {
+        T call() throws Exception;
+    }
+
+    public class Permit implements AutoCloseable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
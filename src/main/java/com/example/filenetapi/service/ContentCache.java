@@ -0,0 +1,276 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.CacheStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Component
+public class ContentCache {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // Access-ordered so iteration starts at the least recently used file
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> filling = ConcurrentHashMap.newKeySet();
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ContentCache(@Value("${filenet.cache.content.enabled:true}") boolean enabled,
+                        @Value("${filenet.cache.content.directory:${java.io.tmpdir}/filenet-content}") Path directory,
+                        @Value("${filenet.cache.content.max-bytes:1073741824}") long maxBytes,
+                        @Value("${filenet.cache.content.max-entry-bytes:104857600}") long maxEntryBytes) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        // The index lives in memory, so files left by a previous run can never be served again
+        if (enabled && Files.isDirectory(directory)) {
+            try (Stream<Path> leftovers = Files.list(directory)) {
+                leftovers.forEach(ContentCache::deleteQuietly);
+            } catch (IOException ignored) {
+                // Best effort; stray files only cost disk space
+            }
+        }
+    }
+
+    public Path lookup(String key, Date lastModified, long length) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            // Same version, but the content may still have been replaced in place
+            if (!Objects.equals(entry.lastModified, lastModified) || entry.size != length) {
+                remove(key);
+                invalidations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.file;
+        }
+    }
+
+    public long transferTo(Path file, long start, long count, OutputStream out) throws IOException {
+        // Not sendfile: the servlet stream is only wrapped as a channel, so the JDK still copies through the heap
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+            return count - remaining;
+        }
+    }
+
+    public Fill beginFill(String key, Date lastModified, long length) {
+        // Only one request populates a given entry; concurrent misses just stream from the CE
+        if (!enabled || length > maxEntryBytes || !filling.add(key)) {
+            return null;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "fill-", ".tmp");
+            return new Fill(key, lastModified, length, temp);
+        } catch (IOException e) {
+            filling.remove(key);
+            return null;
+        }
+    }
+
+    public void invalidate(String keyPrefix) {
+        synchronized (entries) {
+            for (String key : new ArrayList<>(entries.keySet())) {
+                if (key.startsWith(keyPrefix)) {
+                    remove(key);
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        synchronized (entries) {
+            return CacheStatsDTO.builder()
+                    .size(entries.size())
+                    .hits(hits.get())
+                    .misses(misses.get())
+                    .evictions(evictions.get())
+                    .invalidations(invalidations.get())
+                    .weightBytes(totalBytes)
+                    .maxWeightBytes(maxBytes)
+                    .build();
+        }
+    }
+
+    private void store(String key, Date lastModified, long size, Path temp) throws IOException {
+        Path file = directory.resolve(fileName(key));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (entries) {
+            Entry previous = entries.remove(key);
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            entries.put(key, new Entry(file, lastModified, size));
+            totalBytes += size;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            List<Path> evicted = new ArrayList<>();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> candidate = eldest.next();
+                if (candidate.getKey().equals(key)) {
+                    continue;
+                }
+                eldest.remove();
+                totalBytes -= candidate.getValue().size;
+                evicted.add(candidate.getValue().file);
+                evictions.incrementAndGet();
+            }
+            // Readers that already opened an evicted file keep reading it; the OS frees it on close
+            evicted.forEach(ContentCache::deleteQuietly);
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.size;
+            deleteQuietly(entry.file);
+        }
+    }
+
+    private static String fileName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest) + ".bin";
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Retried when the entry is next replaced or at startup
+        }
+    }
+
+    private static class Entry {
+        private final Path file;
+        private final Date lastModified;
+        private final long size;
+
+        private Entry(Path file, Date lastModified, long size) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+
+    public class Fill implements AutoCloseable {
+
+        private final String key;
+        private final Date lastModified;
+        private final long length;
+        private final Path temp;
+        private final FileChannel channel;
+        private long written;
+        private boolean failed;
+        private boolean closed;
+
+        private Fill(String key, Date lastModified, long length, Path temp) throws IOException {
+            this.key = key;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.temp = temp;
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+        }
+
+        public void write(byte[] buffer, int offset, int count) {
+            if (failed) {
+                return;
+            }
+            try {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, offset, count);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                written += count;
+            } catch (IOException e) {
+                // A cache write failure must never break the download it piggybacks on
+                failed = true;
+            }
+        }
+
+        public void commit() {
+            if (failed || written != length) {
+                return;
+            }
+            try {
+                channel.close();
+                store(key, lastModified, length, temp);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The temp file is deleted below either way
+            }
+            deleteQuietly(temp);
+            filling.remove(key);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.core.Document;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.util.Date;
+
+@Getter
+@Builder
+public class DocumentContent {
+    private final Document document;
+    private final int elementIndex;
+    private final String etag;
+    private final long contentLength;
+    private final String mimeType;
+    private final String retrievalName;
+    private final Date dateLastModified;
+    private final String cacheKey;
+    private final Path cachedFile;
+}
@@ -0,0 +1,135 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.filenet.api.constants.PropertyNames;
+import com.filenet.api.core.Document;
+import com.filenet.api.property.Properties;
+import com.filenet.api.property.Property;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class DocumentMapper {
+
+    private static final String ALL_PROPERTIES = "*";
+    private static final int MAX_PLANS = 1024;
+
+    // Properties mapped onto fixed DTO fields rather than into customProperties
+    private static final Set<String> SYSTEM_PROPERTIES = Set.of(
+            PropertyNames.ID,
+            PropertyNames.NAME,
+            PropertyNames.MIME_TYPE,
+            PropertyNames.DATE_CREATED,
+            PropertyNames.DATE_LAST_MODIFIED,
+            PropertyNames.CREATOR,
+            PropertyNames.LAST_MODIFIER);
+
+    private final Map<String, MappingPlan> plans = new ConcurrentHashMap<>();
+
+    public MappingPlan planFor(String[] propertiesToInclude) {
+        String key = propertiesToInclude == null || propertiesToInclude.length == 0
+                ? ALL_PROPERTIES : String.join(",", propertiesToInclude);
+        MappingPlan plan = plans.get(key);
+        if (plan != null) {
+            return plan;
+        }
+
+        // Ad-hoc projections are unbounded; start over rather than grow forever
+        if (plans.size() >= MAX_PLANS) {
+            plans.clear();
+        }
+        return plans.computeIfAbsent(key, k -> new MappingPlan(
+                ALL_PROPERTIES.equals(k) ? null : customPropertiesOf(propertiesToInclude)));
+    }
+
+    public DocumentPropertiesDTO map(Document document) {
+        return planFor(null).map(document);
+    }
+
+    static boolean isSystemProperty(String propertyName) {
+        return propertyName.startsWith("F_") || SYSTEM_PROPERTIES.contains(propertyName);
+    }
+
+    private static String[] customPropertiesOf(String[] propertiesToInclude) {
+        List<String> names = new ArrayList<>(propertiesToInclude.length);
+        for (String raw : propertiesToInclude) {
+            // Same normalisation as SearchProjection, so the plan reads the names the filter fetched
+            String name = raw == null ? "" : raw.trim();
+            if (!name.isEmpty() && !isSystemProperty(name) && !names.contains(name)) {
+                names.add(name);
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private static int capacityFor(int entries) {
+        return (int) (entries / 0.75f) + 1;
+    }
+
+    public static final class MappingPlan {
+
+        private final String[] projectedProperties;
+        private final Map<String, Integer> customPropertyCountByClass = new ConcurrentHashMap<>();
+
+        private MappingPlan(String[] projectedProperties) {
+            this.projectedProperties = projectedProperties;
+        }
+
+        public DocumentPropertiesDTO map(Document document) {
+            // The class identity travels with every object, so naming the class never touches its ClassDescription
+            String documentClass = document.getClassName();
+            Properties props = document.getProperties();
+
+            return DocumentPropertiesDTO.builder()
+                    .id(document.get_Id().toString())
+                    .name(document.get_Name())
+                    .documentClass(documentClass)
+                    .mimeType(document.get_MimeType())
+                    .dateCreated(document.get_DateCreated())
+                    .dateLastModified(document.get_DateLastModified())
+                    .creator(document.get_Creator())
+                    .lastModifier(document.get_LastModifier())
+                    .customProperties(projectedProperties != null
+                            ? mapProjected(props) : mapAll(documentClass, props))
+                    .build();
+        }
+
+        private Map<String, Object> mapProjected(Properties props) {
+            // Read the requested names directly instead of scanning every returned property
+            Map<String, Object> customProperties = new HashMap<>(capacityFor(projectedProperties.length));
+            for (String name : projectedProperties) {
+                if (props.isPropertyPresent(name)) {
+                    customProperties.put(name, props.getObjectValue(name));
+                }
+            }
+            return customProperties;
+        }
+
+        private Map<String, Object> mapAll(String documentClass, Properties props) {
+            // Rows of one class carry the same property set, so the last count sizes the next map
+            Integer expected = documentClass != null ? customPropertyCountByClass.get(documentClass) : null;
+            Map<String, Object> customProperties = new HashMap<>(capacityFor(expected != null ? expected : 16));
+
+            Iterator<?> iterator = props.iterator();
+            while (iterator.hasNext()) {
+                Property prop = (Property) iterator.next();
+                String name = prop.getPropertyName();
+                if (!isSystemProperty(name)) {
+                    customProperties.put(name, prop.getObjectValue());
+                }
+            }
+
+            if (documentClass != null && (expected == null || expected != customProperties.size())) {
+                customPropertyCountByClass.put(documentClass, customProperties.size());
+            }
+            return customProperties;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.CacheStatsDTO;
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.filenet.api.util.Id;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class DocumentMetadataCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    // Every user's entry for one document, so a write drops them all
+    private final Map<String, Set<String>> keysByDocument = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public DocumentMetadataCache(@Value("${filenet.cache.metadata.max-entries:10000}") int maxEntries,
+                                 @Value("${filenet.cache.metadata.ttl:PT5M}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        // Access-ordered so the eldest entry is always the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > DocumentMetadataCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    unindex(eldest.getKey(), eldest.getValue().documentKey);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public DocumentPropertiesDTO get(String user, String objectStore, String id) {
+        String key = key(user, objectStore, id);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (System.nanoTime() - entry.cachedAtNanos > ttlNanos) {
+                entries.remove(key);
+                unindex(key, entry.documentKey);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.document;
+        }
+    }
+
+    public void put(String user, String objectStore, String id, DocumentPropertiesDTO document) {
+        String documentKey = documentKey(objectStore, id);
+        String key = key(user, objectStore, id);
+        Entry entry = new Entry(document, documentKey, System.nanoTime());
+        synchronized (entries) {
+            entries.put(key, entry);
+            keysByDocument.computeIfAbsent(documentKey, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    public void invalidate(String objectStore, String id) {
+        synchronized (entries) {
+            Set<String> keys = keysByDocument.remove(documentKey(objectStore, id));
+            if (keys == null) {
+                return;
+            }
+            for (String key : keys) {
+                if (entries.remove(key) != null) {
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return CacheStatsDTO.builder()
+                .size(size)
+                .maxSize(maxEntries)
+                .hits(hits.get())
+                .misses(misses.get())
+                .evictions(evictions.get())
+                .expirations(expirations.get())
+                .invalidations(invalidations.get())
+                .build();
+    }
+
+    private void unindex(String key, String documentKey) {
+        Set<String> keys = keysByDocument.get(documentKey);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByDocument.remove(documentKey);
+        }
+    }
+
+    private static String key(String user, String objectStore, String id) {
+        // Property values are security-filtered per caller, so one user's fetch is never served to another
+        return user + "\n" + documentKey(objectStore, id);
+    }
+
+    private static String documentKey(String objectStore, String id) {
+        // Canonicalise GUIDs so "{abc-...}" and "ABC-..." share one entry
+        return objectStore + "\n" + (Id.isId(id) ? new Id(id).toString() : id);
+    }
+
+    private static class Entry {
+        private final DocumentPropertiesDTO document;
+        private final String documentKey;
+        private final long cachedAtNanos;
+
+        private Entry(DocumentPropertiesDTO document, String documentKey, long cachedAtNanos) {
+            this.document = document;
+            this.documentKey = documentKey;
+            this.cachedAtNanos = cachedAtNanos;
+        }
+    }
+}
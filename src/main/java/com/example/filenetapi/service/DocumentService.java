@@ -1,159 +1,1215 @@
 package com.example.filenetapi.service;
 
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.BatchItemResultDTO;
+import com.example.filenetapi.dto.ChangeDTO;
+import com.example.filenetapi.dto.ChangeFeedCheckpointDTO;
+import com.example.filenetapi.dto.ContentElementDTO;
+import com.example.filenetapi.dto.DocumentCreatedDTO;
 import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.example.filenetapi.dto.SearchPageDTO;
 import com.example.filenetapi.dto.SearchRequestDTO;
 import com.filenet.api.collection.ContentElementList;
 import com.filenet.api.collection.DocumentSet;
+import com.filenet.api.collection.IndependentObjectSet;
+import com.filenet.api.collection.PageIterator;
 import com.filenet.api.constants.AutoClassify;
 import com.filenet.api.constants.CheckinType;
+import com.filenet.api.constants.ClassNames;
+import com.filenet.api.constants.FilteredPropertyType;
 import com.filenet.api.constants.PropertyNames;
 import com.filenet.api.constants.RefreshMode;
+import com.filenet.api.core.BatchItemHandle;
+import com.filenet.api.core.ContentTransfer;
 import com.filenet.api.core.Document;
 import com.filenet.api.core.Factory;
 import com.filenet.api.core.ObjectStore;
-import com.filenet.api.property.Properties;
+import com.filenet.api.core.RetrievingBatch;
+import com.filenet.api.core.UpdatingBatch;
+import com.filenet.api.events.DeletionEvent;
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
+import com.filenet.api.property.PropertyFilter;
 import com.filenet.api.query.SearchSQL;
 import com.filenet.api.query.SearchScope;
+import com.filenet.api.util.Id;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 @Service
 public class DocumentService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private static final PropertyFilter CONTENT_FILTER = createFilter(1,
+            PropertyNames.ID,
+            PropertyNames.MIME_TYPE,
+            PropertyNames.DATE_LAST_MODIFIED,
+            PropertyNames.MAJOR_VERSION_NUMBER,
+            PropertyNames.MINOR_VERSION_NUMBER,
+            PropertyNames.CONTENT_ELEMENTS,
+            PropertyNames.CONTENT_TYPE,
+            PropertyNames.CONTENT_SIZE,
+            PropertyNames.RETRIEVAL_NAME);
+    private static final PropertyFilter LAST_MODIFIED_FILTER = createFilter(0, PropertyNames.DATE_LAST_MODIFIED);
+    // Scalar and scalar-list properties only; object-valued ones would otherwise be fetched lazily while mapping
+    private static final PropertyFilter METADATA_FILTER = createTypeFilter(FilteredPropertyType.ANY_NONOBJECT);
+    private static final PropertyFilter DELETION_FILTER = createFilter(0,
+            PropertyNames.ID,
+            PropertyNames.DATE_CREATED,
+            PropertyNames.SOURCE_OBJECT_ID);
+
+    private static final Pattern CLASS_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    // CE SQL date literals are UTC in ISO 8601 basic format
+    private static final DateTimeFormatter SQL_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss.SSS'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    @Autowired
+    private FileNetSessionManager sessionManager;
+
+    @Autowired
+    private UploadBudget uploadBudget;
+
+    @Autowired
+    private BufferPool bufferPool;
+
+    @Autowired
+    private DocumentMetadataCache metadataCache;
+
+    @Autowired
+    private SearchCursorRegistry cursorRegistry;
+
+    @Autowired
+    private DocumentMapper documentMapper;
+
+    @Autowired
+    private SearchScopeFactory searchScopeFactory;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private SearchQueryPlanCache queryPlanCache;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private FileNetMetrics metrics;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Value("${filenet.cache.metadata.revalidate:false}")
+    private boolean revalidateMetadata;
+
+    @Autowired
+    private AsyncTaskExecutor filenetExecutor;
+
     @Autowired
-    private ObjectStore objectStore;
+    private AsyncTaskExecutor contentReadExecutor;
+
+    @Value("${filenet.upload.parts.read-ahead:4}")
+    private int partReadAhead;
+
+    @Value("${filenet.upload.parts.queue-depth:4}")
+    private int partQueueDepth;
+
+    @Value("${filenet.batch.size:50}")
+    private int defaultBatchSize;
+
+    @Value("${filenet.bulk.chunk-size:100}")
+    private int bulkChunkSize;
+
+    @Value("${filenet.search.max-offset:10000}")
+    private int maxOffset;
+
+    @Value("${filenet.session.pass-through-credentials:false}")
+    private boolean passThroughCredentials;
+
+    @Value("${filenet.federated.store-timeout:PT10S}")
+    private Duration storeTimeout;
+
+    @Value("${filenet.changes.page-size:500}")
+    private int changesPageSize;
+
+    @Value("${filenet.changes.max-changes:10000}")
+    private int maxChanges;
+
+    @Value("${filenet.changes.settle-time:PT10S}")
+    private Duration changesSettleTime;
+
+    @Value("${filenet.changes.deletions.enabled:false}")
+    private boolean trackDeletions;
 
     public String createDocument(MultipartFile file, String documentClass) throws Exception {
-        Document doc = Factory.Document.createInstance(objectStore, documentClass);
-        
-        ContentElementList contentList = Factory.ContentElement.createList();
         try (InputStream is = file.getInputStream()) {
-            contentList.add(Factory.ContentTransfer.createInstance());
-            doc.set_ContentElements(contentList);
-            doc.set_MimeType(file.getContentType());
-            doc.checkin(CheckinType.MAJOR_VERSION, "Initial Version");
-            doc.save(RefreshMode.REFRESH);
-            
-            return doc.get_Id().toString();
+            return createDocument(is, file.getSize(), documentClass, file.getContentType(), file.getOriginalFilename());
+        }
+    }
+
+    public String createDocument(InputStream content, long contentLength, String documentClass,
+                                 String mimeType, String fileName) throws Exception {
+        try (UploadBudget.Reservation reservation = uploadBudget.reserve(contentLength)) {
+            return saveNewDocument(null, content, contentLength, documentClass, mimeType, fileName);
         }
     }
 
-    public Document getDocument(String id) throws Exception {
-        return Factory.Document.fetchInstance(objectStore, id, null);
+    public String createDocumentFromSpool(Path spoolFile, long contentLength, String documentClass,
+                                          String mimeType, String fileName) throws Exception {
+        try (InputStream content = Files.newInputStream(spoolFile)) {
+            return createDocumentFromLocalContent(null, content, contentLength, documentClass, mimeType, fileName);
+        }
     }
 
-    public void deleteDocument(String id) throws Exception {
-        Document doc = Factory.Document.fetchInstance(objectStore, id, null);
-        doc.delete();
-        doc.save(RefreshMode.REFRESH);
+    public String createDocumentFromLocalContent(String documentId, InputStream content, long contentLength,
+                                                 String documentClass, String mimeType, String fileName) throws Exception {
+        // Content already on local disk does not count against the in-flight upload budget
+        InputStream buffered = new BufferedInputStream(content, bufferPool.getBufferSize());
+        return saveNewDocument(documentId != null ? new Id(documentId) : null, buffered, contentLength,
+                documentClass, mimeType, fileName);
     }
 
-    public List<DocumentPropertiesDTO> searchDocuments(String sqlQuery, int maxResults) throws Exception {
-        SearchScope searchScope = new SearchScope(objectStore);
-        SearchSQL searchSQL = new SearchSQL(sqlQuery);
-        DocumentSet documents = (DocumentSet) searchScope.fetchObjects(searchSQL, maxResults, null, true);
+    private String saveNewDocument(Id id, InputStream content, long contentLength, String documentClass,
+                                   String mimeType, String fileName) throws Exception {
+        // The save streams the client's upload, so its duration says little about CE load
+        return bulkheads.content().callUnsampled(() -> saveNewDocument(
+                newDocument(id, content, documentClass, mimeType, fileName), documentClass, contentLength));
+    }
 
-        List<DocumentPropertiesDTO> results = new ArrayList<>();
-        for (Object obj : documents) {
-            Document doc = (Document) obj;
-            results.add(mapDocumentToDTO(doc));
+    private String saveNewDocument(Document doc, String documentClass, long contentLength) throws Exception {
+        // The content streams to the CE during the save, so it doubles as the upload transfer time
+        long started = System.nanoTime();
+        metrics.record("save", documentClass, () -> {
+            doc.save(RefreshMode.REFRESH);
+            return null;
+        });
+        metrics.recordTransfer("upload", contentLength, System.nanoTime() - started);
+
+        String documentId = doc.get_Id().toString();
+        metadataCache.invalidate(objectStore().get_SymbolicName(), documentId);
+        searchResultCache.invalidateClass(objectStore(), documentClass);
+        return documentId;
+    }
+
+    public DocumentCreatedDTO createDocument(MultipartFile[] files, String documentClass, String[] checksums) throws Exception {
+        if (files.length == 0) {
+            throw new IllegalArgumentException("At least one file is required");
+        }
+        if (checksums != null && checksums.length != files.length) {
+            throw new IllegalArgumentException("Expected " + files.length + " checksums but got " + checksums.length);
+        }
+
+        long totalBytes = 0;
+        List<ParallelPartReader.PartSource> sources = new ArrayList<>(files.length);
+        for (MultipartFile file : files) {
+            totalBytes += file.getSize();
+            sources.add(file::getInputStream);
+        }
+
+        try (UploadBudget.Reservation reservation = uploadBudget.reserve(totalBytes);
+             ParallelPartReader reader = new ParallelPartReader(sources, checksums != null ? Arrays.asList(checksums) : null,
+                     partReadAhead, partQueueDepth, bufferPool, contentReadExecutor)) {
+            long contentLength = totalBytes;
+            String documentId = bulkheads.content().callUnsampled(() -> {
+                // Element order follows the request; the CE numbers elements in list order
+                List<ContentTransfer> elements = new ArrayList<>(files.length);
+                for (int i = 0; i < files.length; i++) {
+                    elements.add(contentTransfer(reader.stream(i), files[i].getContentType(), files[i].getOriginalFilename()));
+                }
+                return saveNewDocument(newDocument(null, elements, documentClass, files[0].getContentType()),
+                        documentClass, contentLength);
+            });
+
+            List<ContentElementDTO> contentElements = new ArrayList<>(files.length);
+            for (int i = 0; i < files.length; i++) {
+                contentElements.add(ContentElementDTO.builder()
+                        .index(i)
+                        .fileName(files[i].getOriginalFilename())
+                        .mimeType(files[i].getContentType())
+                        .size(reader.getSize(i))
+                        .sha256(reader.getSha256(i))
+                        .build());
+            }
+            return DocumentCreatedDTO.builder().id(documentId).contentElements(contentElements).build();
+        }
+    }
+
+    public List<BatchItemResultDTO> createDocuments(MultipartFile[] files, String[] ids, String documentClass,
+                                                    int batchSize, boolean refresh) throws Exception {
+        if (ids != null && ids.length != files.length) {
+            throw new IllegalArgumentException("Expected " + files.length + " ids but got " + ids.length);
         }
 
+        int chunkSize = Math.max(1, Math.min(batchSize > 0 ? batchSize : defaultBatchSize, MAX_BATCH_SIZE));
+        List<BatchItemResultDTO> results = new ArrayList<>(files.length);
+        try {
+            for (int start = 0; start < files.length; start += chunkSize) {
+                int end = Math.min(files.length, start + chunkSize);
+                try {
+                    results.addAll(createChunk(files, ids, start, end, documentClass, refresh));
+                } catch (CapacityExceededException | MaxUploadSizeExceededException e) {
+                    if (start == 0) {
+                        throw e;
+                    }
+                    // Earlier chunks are committed, so report them and reject the rest instead of failing the request
+                    for (int i = start; i < files.length; i++) {
+                        results.add(BatchItemResultDTO.builder()
+                                .index(i)
+                                .id(ids != null ? ids[i] : null)
+                                .fileName(files[i].getOriginalFilename())
+                                .status(BatchItemResultDTO.Status.REJECTED)
+                                .error(e.getMessage())
+                                .build());
+                    }
+                    break;
+                }
+            }
+        } finally {
+            searchResultCache.invalidateClass(objectStore(), documentClass);
+        }
         return results;
     }
 
-    public List<DocumentPropertiesDTO> searchDocumentsAdvanced(SearchRequestDTO searchRequest) throws Exception {
-        StringBuilder sqlBuilder = new StringBuilder(searchRequest.getSqlQuery());
+    public DocumentPropertiesDTO getDocument(String id) throws Exception {
+        return getDocument(id, null);
+    }
 
-        // Add ORDER BY clause if specified
-        if (searchRequest.getOrderBy() != null && !searchRequest.getOrderBy().isEmpty()) {
-            sqlBuilder.append(" ORDER BY ")
-                     .append(searchRequest.getOrderBy())
-                     .append(searchRequest.isAscending() ? " ASC" : " DESC");
+    public DocumentPropertiesDTO getDocument(String id, String[] fields) throws Exception {
+        SearchProjection projection = SearchProjection.of(fields);
+        // A cached full representation answers projected reads as well
+        DocumentPropertiesDTO cached = cachedDocument(id);
+        if (cached != null) {
+            return projection != null ? project(cached, projection) : cached;
         }
 
-        SearchScope searchScope = new SearchScope(objectStore);
-        SearchSQL searchSQL = new SearchSQL(sqlBuilder.toString());
+        if (projection != null) {
+            // The metadata cache only holds full representations, so projected fetches are not cached
+            DocumentMapper.MappingPlan plan = documentMapper.planFor(projection.getCustomProperties());
+            return bulkheads.metadata().call(() -> plan.map(fetchDocument(id, projection.getPropertyFilter())));
+        }
+
+        DocumentPropertiesDTO dto = bulkheads.metadata().call(() -> documentMapper.map(fetchDocument(id, METADATA_FILTER)));
+        metadataCache.put(currentUsername(), objectStore().get_SymbolicName(), id, dto);
+        return dto;
+    }
+
+    public String getDocumentETag(String id, String[] fields) throws Exception {
+        SearchProjection projection = SearchProjection.of(fields);
+        // Always asks the CE: the single-property fetch is the validator and re-checks the caller's access.
+        // The metadata cache only saves the full property fetch when the tag does not match
+        Document doc = bulkheads.metadata().call(() -> fetchDocument(id, LAST_MODIFIED_FILTER));
+        return etag(doc.get_Id().toString(), doc.get_DateLastModified(), projection);
+    }
+
+    public static String etag(DocumentPropertiesDTO document, String[] fields) {
+        return etag(document.getId(), document.getDateLastModified(), SearchProjection.of(fields));
+    }
+
+    public DocumentContent getDocumentContent(String id, int elementIndex) throws Exception {
+        Document doc = bulkheads.metadata().call(() -> metrics.record("fetchInstance", null,
+                () -> Factory.Document.fetchInstance(objectStore(), id, CONTENT_FILTER)));
+        ContentElementList elements = doc.get_ContentElements();
+        if (elementIndex < 0 || elementIndex >= elements.size()) {
+            throw new IllegalArgumentException("Document " + id + " has no content element " + elementIndex);
+        }
+        if (!(elements.get(elementIndex) instanceof ContentTransfer)) {
+            throw new IllegalArgumentException("Content element " + elementIndex + " is not stored in the object store");
+        }
+        ContentTransfer element = (ContentTransfer) elements.get(elementIndex);
+
+        // Strong validator: any new version or modification yields a different tag
+        String etag = "\"" + doc.get_Id().toString() + "-" + doc.get_MajorVersionNumber() + "."
+                + doc.get_MinorVersionNumber() + "-" + doc.get_DateLastModified().getTime()
+                + "-" + elementIndex + "\"";
+
+        // The fetch above already revalidates DateLastModified, so a cached copy costs no extra round-trip.
+        // Under pass-through credentials a hit never reaches the CE's content access check, so entries are per user
+        String cacheKey = contentKeyPrefix(doc.get_Id().toString())
+                + (passThroughCredentials ? currentUsername() + "/" : "")
+                + doc.get_MajorVersionNumber() + "." + doc.get_MinorVersionNumber() + "/" + elementIndex;
+        long contentLength = element.get_ContentSize().longValue();
+
+        return DocumentContent.builder()
+                .document(doc)
+                .elementIndex(elementIndex)
+                .etag(etag)
+                .contentLength(contentLength)
+                .mimeType(element.get_ContentType() != null ? element.get_ContentType() : doc.get_MimeType())
+                .retrievalName(element.get_RetrievalName())
+                .dateLastModified(doc.get_DateLastModified())
+                .cacheKey(cacheKey)
+                .cachedFile(contentCache.lookup(cacheKey, doc.get_DateLastModified(), contentLength))
+                .build();
+    }
+
+    public void copyContent(DocumentContent content, long start, long count, OutputStream out) throws IOException {
+        if (content.getCachedFile() != null) {
+            long opened = System.nanoTime();
+            try {
+                long sent = contentCache.transferTo(content.getCachedFile(), start, count, out);
+                metrics.recordTransfer("cache", sent, System.nanoTime() - opened);
+                return;
+            } catch (NoSuchFileException e) {
+                // Evicted between lookup and open; the CE read needs the content permit the hit path skipped
+                try (ConcurrencyLimiter.Permit permit = bulkheads.content().acquire()) {
+                    copyFromEngine(content, start, count, out);
+                }
+                return;
+            }
+        }
+        copyFromEngine(content, start, count, out);
+    }
 
-        // Apply parameters if provided
-        if (searchRequest.getParameters() != null) {
-            for (Map.Entry<String, Object> param : searchRequest.getParameters().entrySet()) {
-                searchSQL.setParameter(param.getKey(), param.getValue());
+    private void copyFromEngine(DocumentContent content, long start, long count, OutputStream out) throws IOException {
+        // Only complete downloads populate the cache; ranges are served but never stored
+        boolean complete = start == 0 && count == content.getContentLength();
+        byte[] buffer = bufferPool.acquire();
+        long opened = System.nanoTime();
+        try (ContentCache.Fill fill = complete && content.getCacheKey() != null
+                ? contentCache.beginFill(content.getCacheKey(), content.getDateLastModified(), content.getContentLength())
+                : null;
+             InputStream is = content.getDocument().accessContentStream(content.getElementIndex())) {
+            is.skipNBytes(start);
+            long remaining = count;
+            boolean sampled = false;
+            while (remaining > 0) {
+                int read = is.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (!sampled) {
+                    // Time to first byte reflects CE load; the rest of the transfer is bound by the client
+                    bulkheads.content().onSample(System.nanoTime() - opened);
+                    sampled = true;
+                }
+                if (read < 0) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                if (fill != null) {
+                    fill.write(buffer, 0, read);
+                }
+                remaining -= read;
+            }
+            out.flush();
+            if (fill != null) {
+                fill.commit();
             }
+            metrics.recordTransfer("download", count - remaining, System.nanoTime() - opened);
+        } finally {
+            bufferPool.release(buffer);
         }
+    }
+
+    public void deleteDocument(String id) throws Exception {
+        String documentClass = bulkheads.metadata().call(() -> {
+            Document doc = metrics.record("fetchInstance", null, () -> Factory.Document.fetchInstance(objectStore(), id, null));
+            doc.delete();
+            metrics.record("save", doc.getClassName(), () -> {
+                doc.save(RefreshMode.REFRESH);
+                return null;
+            });
+            return doc.getClassName();
+        });
+        metadataCache.invalidate(objectStore().get_SymbolicName(), id);
+        contentCache.invalidate(contentKeyPrefix(id));
+        searchResultCache.invalidateClass(objectStore(), documentClass);
+    }
+
+    public List<BatchItemResultDTO> deleteDocuments(List<String> ids) throws Exception {
+        try {
+            return runInChunks(ids, this::deleteChunk);
+        } finally {
+            // Bare references carry no class, so every cached search may be affected
+            searchResultCache.invalidateAll();
+        }
+    }
+
+    public List<BatchItemResultDTO> getDocuments(List<String> ids, String[] propertiesToInclude) throws Exception {
+        SearchProjection projection = SearchProjection.of(propertiesToInclude);
+        DocumentMapper.MappingPlan plan = documentMapper.planFor(propertiesToInclude);
+        return runInChunks(ids, (chunk, offset) -> getChunk(chunk, offset,
+                projection != null ? projection.getPropertyFilter() : METADATA_FILTER, plan, projection == null));
+    }
+
+    public List<DocumentPropertiesDTO> searchDocuments(String sqlQuery, int maxResults) throws Exception {
+        return searchDocuments(sqlQuery, maxResults, null);
+    }
+
+    public List<DocumentPropertiesDTO> searchDocuments(String sqlQuery, int maxResults, String[] propertiesToInclude) throws Exception {
+        return bulkheads.search().call(() -> {
+            SearchQueryPlan queryPlan = queryPlanCache.planFor(objectStore(), sqlQuery, null, true, propertiesToInclude);
+            SearchScope searchScope = searchScopeFactory.create(objectStore());
+            DocumentSet documents = metrics.record("fetchObjects", queryPlan.getClassName(), () ->
+                    (DocumentSet) searchScope.fetchObjects(queryPlan.bind(null), maxResults, queryPlan.getPropertyFilter(), true));
+
+            return mapRows("simple", queryPlan.getClassName(), documents.iterator(), Integer.MAX_VALUE,
+                    documentMapper.planFor(propertiesToInclude));
+        });
+    }
+
+    public List<DocumentPropertiesDTO> searchDocumentsAdvanced(SearchRequestDTO searchRequest) throws Exception {
+        SearchQueryPlan queryPlan = queryPlanCache.planFor(objectStore(), searchRequest);
 
         // Calculate page size and offset
-        int pageSize = Math.min(searchRequest.getMaxResults(), 1000); // Limit max results
+        int pageSize = pageSize(searchRequest);
         int offset = Math.max(0, searchRequest.getOffset());
+        // Every skipped row is fetched and discarded, so deep offsets cost O(offset); cursors do not
+        if (offset > maxOffset) {
+            throw new IllegalArgumentException("offset " + offset + " exceeds the maximum of " + maxOffset
+                    + "; page deeper result sets with POST /api/documents/search/page");
+        }
+
+        SearchResultCache.Key key = new SearchResultCache.Key(currentUsername(), objectStore().get_SymbolicName(),
+                queryPlan, searchRequest.getParameters(), offset, pageSize);
+        return searchResultCache.get(key, () -> bulkheads.search().call(() -> {
+            SearchScope searchScope = searchScopeFactory.create(objectStore());
+            DocumentSet documents = metrics.record("fetchObjects", queryPlan.getClassName(), () ->
+                    (DocumentSet) searchScope.fetchObjects(queryPlan.bind(searchRequest.getParameters()),
+                            pageSize, queryPlan.getPropertyFilter(), true));
+
+            // Skip to offset
+            Iterator<?> iterator = documents.iterator();
+            for (int i = 0; i < offset && iterator.hasNext(); i++) {
+                iterator.next();
+            }
+
+            return mapRows("advanced", queryPlan.getClassName(), iterator, pageSize,
+                    documentMapper.planFor(searchRequest.getPropertiesToInclude()));
+        }));
+    }
+
+    public SearchPageDTO searchDocumentsPage(SearchRequestDTO searchRequest) throws Exception {
+        return bulkheads.search().call(() -> {
+            String owner = currentUsername();
+            SearchCursorRegistry.Cursor cursor;
+
+            if (searchRequest.getContinuationToken() != null && !searchRequest.getContinuationToken().isEmpty()) {
+                cursor = cursorRegistry.take(searchRequest.getContinuationToken(), owner);
+            } else {
+                cursor = new SearchCursorRegistry.Cursor(openPageIterator(searchRequest), owner,
+                        searchRequest.getPropertiesToInclude());
+            }
+
+            DocumentMapper.MappingPlan plan = documentMapper.planFor(cursor.getPropertiesToInclude());
+            List<DocumentPropertiesDTO> results = metrics.record("nextPage", null, () -> cursor.getPageIterator().nextPage())
+                    ? mapRows("page", null, Arrays.asList(cursor.getPageIterator().getCurrentPage()).iterator(),
+                            Integer.MAX_VALUE, plan)
+                    : new ArrayList<>();
+
+            return SearchPageDTO.builder()
+                    .results(results)
+                    .continuationToken(results.isEmpty() ? null : cursorRegistry.register(cursor))
+                    .build();
+        });
+    }
+
+    public ConcurrencyLimiter.Permit acquireSearchPermit() {
+        return bulkheads.search().acquire();
+    }
+
+    public ConcurrencyLimiter.Permit acquireContentPermit() {
+        return bulkheads.content().acquire();
+    }
+
+    public void streamDocuments(SearchRequestDTO searchRequest, PageHandler handler) throws Exception {
+        long started = System.nanoTime();
+        PageIterator pageIterator = openPageIterator(searchRequest);
+        String documentClass = queryPlanCache.planFor(objectStore(), searchRequest).getClassName();
+        DocumentMapper.MappingPlan plan = documentMapper.planFor(searchRequest.getPropertiesToInclude());
+
+        // Only one page of documents is ever held, however many rows match
+        while (metrics.record("nextPage", documentClass, pageIterator::nextPage)) {
+            // The caller holds the search permit; feed each page round-trip to the limiter
+            bulkheads.search().onSample(System.nanoTime() - started);
+            handler.onPage(mapRows("stream", documentClass, Arrays.asList(pageIterator.getCurrentPage()).iterator(),
+                    Integer.MAX_VALUE, plan));
+            started = System.nanoTime();
+        }
+    }
+
+    public ChangeQuery prepareChanges(String since, String documentClass, String[] propertiesToInclude) {
+        // Everything is validated here so the feed fails with a 400 rather than a cut-off stream
+        String className = documentClass != null && !documentClass.isEmpty() ? documentClass : ClassNames.DOCUMENT;
+        if (!CLASS_NAME.matcher(className).matches()) {
+            throw new IllegalArgumentException("Invalid document class: " + documentClass);
+        }
+        SearchProjection.of(propertiesToInclude);
+        return ChangeQuery.builder()
+                .watermark(ChangeWatermark.parse(since, System.currentTimeMillis()))
+                .documentClass(className)
+                .propertiesToInclude(propertiesToInclude)
+                .build();
+    }
+
+    public ChangeFeedCheckpointDTO streamChanges(ChangeQuery query, ChangeHandler handler) throws Exception {
+        // A save is stamped before it commits, so the newest rows wait until concurrent saves have landed
+        Date settledBefore = new Date(System.currentTimeMillis() - changesSettleTime.toMillis());
+        String documentClass = query.getDocumentClass();
+        SearchProjection projection = SearchProjection.of(query.getPropertiesToInclude());
+        PropertyFilter filter = projection != null ? projection.getPropertyFilter() : METADATA_FILTER;
+        DocumentMapper.MappingPlan plan = documentMapper.planFor(query.getPropertiesToInclude());
+        SearchScope searchScope = searchScopeFactory.create(objectStore());
+        ChangeWatermark watermark = query.getWatermark();
+        int remaining = maxChanges;
+
+        // Each page is a fresh TOP n query from the last key, so CE work tracks change volume rather than store size
+        while (remaining > 0) {
+            int limit = Math.min(changesPageSize, remaining);
+            String sql = changesSql(documentClass, projection, watermark, settledBefore, limit);
+            long started = System.nanoTime();
+            IndependentObjectSet rows = metrics.record("fetchObjects", documentClass, () ->
+                    searchScope.fetchObjects(new SearchSQL(sql), limit, filter, false));
+            List<DocumentPropertiesDTO> documents = mapRows("changes", documentClass, rows.iterator(), limit, plan);
+            bulkheads.search().onSample(System.nanoTime() - started);
+            if (documents.isEmpty()) {
+                break;
+            }
+
+            List<ChangeDTO> changes = new ArrayList<>(documents.size());
+            for (DocumentPropertiesDTO document : documents) {
+                changes.add(ChangeDTO.builder()
+                        .type(ChangeDTO.Type.MODIFIED)
+                        .id(document.getId())
+                        .changedAt(document.getDateLastModified())
+                        .document(document)
+                        .build());
+            }
+            DocumentPropertiesDTO last = documents.get(documents.size() - 1);
+            watermark = watermark.afterModified(last.getDateLastModified(), last.getId());
+            remaining -= documents.size();
+            handler.onChanges(changes);
+            if (documents.size() < limit) {
+                break;
+            }
+        }
+
+        // Deletions are only visible through DeletionEvent audit entries, so they need auditing on the store
+        while (trackDeletions && remaining > 0) {
+            int limit = Math.min(changesPageSize, remaining);
+            String sql = deletionsSql(watermark, settledBefore, limit);
+            long started = System.nanoTime();
+            IndependentObjectSet events = metrics.record("fetchObjects", "DeletionEvent", () ->
+                    searchScope.fetchObjects(new SearchSQL(sql), limit, DELETION_FILTER, false));
+
+            List<ChangeDTO> changes = new ArrayList<>();
+            DeletionEvent last = null;
+            Iterator<?> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                last = (DeletionEvent) iterator.next();
+                changes.add(ChangeDTO.builder()
+                        .type(ChangeDTO.Type.DELETED)
+                        .id(last.get_SourceObjectId().toString())
+                        .changedAt(last.get_DateCreated())
+                        .build());
+            }
+            bulkheads.search().onSample(System.nanoTime() - started);
+            if (last == null) {
+                break;
+            }
+
+            watermark = watermark.afterDeleted(last.get_DateCreated(), last.get_Id().toString());
+            remaining -= changes.size();
+            handler.onChanges(changes);
+            if (changes.size() < limit) {
+                break;
+            }
+        }
+
+        return ChangeFeedCheckpointDTO.builder()
+                .watermark(watermark.encode())
+                .hasMore(remaining <= 0)
+                .build();
+    }
+
+    public List<String> resolveObjectStores(SearchRequestDTO searchRequest) {
+        List<String> configured = sessionManager.getObjectStoreNames();
+        if (searchRequest.getObjectStores() == null || searchRequest.getObjectStores().length == 0) {
+            return configured;
+        }
+        for (String storeName : searchRequest.getObjectStores()) {
+            if (!configured.contains(storeName)) {
+                throw new IllegalArgumentException("Object store " + storeName + " is not configured for federated search");
+            }
+        }
+        return Arrays.asList(searchRequest.getObjectStores());
+    }
+
+    public List<String> streamDocumentsAcrossStores(List<String> storeNames, SearchRequestDTO searchRequest,
+                                                    PageHandler handler) throws Exception {
+        int pageSize = pageSize(searchRequest);
+        List<SearchQueryPlan.SortKey> sortKeys = queryPlanCache.planFor(objectStore(), searchRequest).getSortKeys();
+        // The merge compares mapped rows, so a projection must carry every sort key
+        SearchRequestDTO request = withSortKeys(searchRequest, sortKeys);
+        DocumentMapper.MappingPlan plan = documentMapper.planFor(request.getPropertiesToInclude());
+        List<StoreCursor> cursors = new ArrayList<>(storeNames.size());
+        for (String storeName : storeNames) {
+            StoreCursor cursor = new StoreCursor(storeName, request, plan);
+            cursor.prefetch();
+            cursors.add(cursor);
+        }
+
+        List<String> skipped = new ArrayList<>();
+        try {
+            // Every store returns rows in the same ORDER BY, so a k-way merge on the heads keeps the global order
+            Comparator<DocumentPropertiesDTO> order = SortedResultMerger.comparatorFor(sortKeys);
+            PriorityQueue<StoreCursor> heads = new PriorityQueue<>(
+                    Math.max(1, cursors.size()), (a, b) -> order.compare(a.head(), b.head()));
+            for (StoreCursor cursor : cursors) {
+                if (cursor.advance(skipped)) {
+                    heads.add(cursor);
+                }
+            }
+
+            List<DocumentPropertiesDTO> page = new ArrayList<>(pageSize);
+            while (!heads.isEmpty()) {
+                StoreCursor cursor = heads.poll();
+                page.add(cursor.head());
+                if (page.size() == pageSize) {
+                    handler.onPage(page);
+                    page = new ArrayList<>(pageSize);
+                }
+                if (cursor.advance(skipped)) {
+                    heads.add(cursor);
+                }
+            }
+            if (!page.isEmpty()) {
+                handler.onPage(page);
+            }
+        } finally {
+            cursors.forEach(StoreCursor::cancel);
+        }
+        return skipped;
+    }
 
-        DocumentSet documents = (DocumentSet) searchScope.fetchObjects(searchSQL, pageSize, null, true);
+    static SearchRequestDTO withSortKeys(SearchRequestDTO searchRequest, List<SearchQueryPlan.SortKey> sortKeys) {
+        String[] included = searchRequest.getPropertiesToInclude();
+        if (included == null || included.length == 0) {
+            return searchRequest;
+        }
 
-        // Skip to offset
-        Iterator<?> iterator = documents.iterator();
-        for (int i = 0; i < offset && iterator.hasNext(); i++) {
-            iterator.next();
+        List<String> properties = new ArrayList<>(Arrays.asList(included));
+        for (SearchQueryPlan.SortKey sortKey : sortKeys) {
+            String property = sortKey.getProperty();
+            boolean present = Arrays.stream(SearchProjection.DTO_PROPERTIES).anyMatch(property::equalsIgnoreCase)
+                    || properties.stream().anyMatch(name -> name != null && name.trim().equalsIgnoreCase(property));
+            if (!present) {
+                properties.add(property);
+            }
         }
+        if (properties.size() == included.length) {
+            return searchRequest;
+        }
+
+        SearchRequestDTO widened = new SearchRequestDTO();
+        widened.setSqlQuery(searchRequest.getSqlQuery());
+        widened.setMaxResults(searchRequest.getMaxResults());
+        widened.setOffset(searchRequest.getOffset());
+        widened.setParameters(searchRequest.getParameters());
+        widened.setPropertiesToInclude(properties.toArray(new String[0]));
+        widened.setOrderBy(searchRequest.getOrderBy());
+        widened.setAscending(searchRequest.isAscending());
+        widened.setContinuationToken(searchRequest.getContinuationToken());
+        widened.setObjectStores(searchRequest.getObjectStores());
+        return widened;
+    }
+
+    private PageIterator openPageIterator(SearchRequestDTO searchRequest) throws Exception {
+        return openPageIterator(objectStore(), searchRequest);
+    }
+
+    private PageIterator openPageIterator(ObjectStore objectStore, SearchRequestDTO searchRequest) throws Exception {
+        SearchQueryPlan queryPlan = queryPlanCache.planFor(objectStore, searchRequest);
+        SearchScope searchScope = searchScopeFactory.create(objectStore);
+        int pageSize = pageSize(searchRequest);
+        IndependentObjectSet documents = metrics.record("fetchObjects", queryPlan.getClassName(), () ->
+                searchScope.fetchObjects(queryPlan.bind(searchRequest.getParameters()),
+                        pageSize, queryPlan.getPropertyFilter(), true));
 
+        // The CE continuation state lives in the iterator, so each further page costs one round-trip
+        PageIterator pageIterator = documents.pageIterator();
+        pageIterator.setPageSize(pageSize);
+        return pageIterator;
+    }
+
+    private List<DocumentPropertiesDTO> mapRows(String mode, String documentClass, Iterator<?> rows, int limit,
+                                                DocumentMapper.MappingPlan plan) {
+        // Only the mapping itself is timed; advancing the iterator may be a CE page fetch
         List<DocumentPropertiesDTO> results = new ArrayList<>();
-        while (iterator.hasNext() && results.size() < pageSize) {
-            Document doc = (Document) iterator.next();
-            DocumentPropertiesDTO dto = mapDocumentToDTO(doc);
-            
-            // Filter properties if specified
-            if (searchRequest.getPropertiesToInclude() != null && searchRequest.getPropertiesToInclude().length > 0) {
-                Map<String, Object> filteredProps = new HashMap<>();
-                Set<String> includedProps = new HashSet<>(Arrays.asList(searchRequest.getPropertiesToInclude()));
-                dto.getCustomProperties().forEach((key, value) -> {
-                    if (includedProps.contains(key)) {
-                        filteredProps.put(key, value);
-                    }
+        long mappingNanos = 0;
+        while (results.size() < limit && rows.hasNext()) {
+            Document doc = (Document) rows.next();
+            long start = System.nanoTime();
+            results.add(plan.map(doc));
+            mappingNanos += System.nanoTime() - start;
+        }
+        metrics.recordMapping(mode, documentClass, results.size(), mappingNanos);
+        return results;
+    }
+
+    static String changesSql(String documentClass, SearchProjection projection, ChangeWatermark watermark,
+                             Date settledBefore, int limit) {
+        String sql = "SELECT TOP " + limit + " * FROM " + documentClass
+                + " WHERE " + PropertyNames.DATE_LAST_MODIFIED + " < " + SQL_DATE.format(settledBefore.toInstant())
+                + " AND " + keyset(PropertyNames.DATE_LAST_MODIFIED, watermark.getModifiedAt(), watermark.getModifiedId())
+                + " ORDER BY " + PropertyNames.DATE_LAST_MODIFIED + ", " + PropertyNames.ID;
+        return projection != null ? projection.applySelectList(sql) : sql;
+    }
+
+    static String deletionsSql(ChangeWatermark watermark, Date settledBefore, int limit) {
+        return "SELECT TOP " + limit + " " + PropertyNames.ID + ", " + PropertyNames.DATE_CREATED + ", "
+                + PropertyNames.SOURCE_OBJECT_ID + " FROM DeletionEvent"
+                + " WHERE " + PropertyNames.DATE_CREATED + " < " + SQL_DATE.format(settledBefore.toInstant())
+                + " AND " + keyset(PropertyNames.DATE_CREATED, watermark.getDeletedAt(), watermark.getDeletedId())
+                + " ORDER BY " + PropertyNames.DATE_CREATED + ", " + PropertyNames.ID;
+    }
+
+    private static String keyset(String dateProperty, long at, String afterId) {
+        // Ties on the timestamp are broken by Id, matching the ORDER BY, so no row is skipped or repeated
+        String date = SQL_DATE.format(new Date(at).toInstant());
+        if (afterId == null) {
+            return dateProperty + " >= " + date;
+        }
+        return "(" + dateProperty + " > " + date + " OR (" + dateProperty + " = " + date
+                + " AND " + PropertyNames.ID + " > " + afterId + "))";
+    }
+
+    private int pageSize(SearchRequestDTO searchRequest) {
+        return Math.min(searchRequest.getMaxResults(), 1000); // Limit max results
+    }
+
+    private List<BatchItemResultDTO> createChunk(MultipartFile[] files, String[] ids, int start, int end,
+                                                 String documentClass, boolean refresh) {
+        long chunkBytes = 0;
+        for (int i = start; i < end; i++) {
+            chunkBytes += files[i].getSize();
+        }
+
+        List<BatchItemResultDTO> results = new ArrayList<>(end - start);
+        List<InputStream> streams = new ArrayList<>(end - start);
+        try (UploadBudget.Reservation reservation = uploadBudget.reserve(chunkBytes)) {
+            // IDs are assigned up front, so the batch never needs a refresh fetch to report them
+            UpdatingBatch batch = UpdatingBatch.createUpdatingBatchInstance(session().getDomain(),
+                    refresh ? RefreshMode.REFRESH : RefreshMode.NO_REFRESH);
+            for (int i = start; i < end; i++) {
+                Id id = ids != null ? new Id(ids[i]) : Id.createId();
+                InputStream content = files[i].getInputStream();
+                streams.add(content);
+                batch.add(newDocument(id, content, documentClass, files[i].getContentType(),
+                        files[i].getOriginalFilename()), null);
+                results.add(BatchItemResultDTO.builder()
+                        .index(i)
+                        .id(id.toString())
+                        .fileName(files[i].getOriginalFilename())
+                        .status(BatchItemResultDTO.Status.CREATED)
+                        .build());
+            }
+            long started = System.nanoTime();
+            bulkheads.content().callUnsampled(() -> metrics.record("updateBatch", documentClass, () -> {
+                batch.updateBatch();
+                return null;
+            }));
+            sampleBatch(bulkheads.content(), started, end - start);
+        } catch (CapacityExceededException | MaxUploadSizeExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            // An updating batch commits atomically, so one failure fails the whole chunk
+            results.clear();
+            for (int i = start; i < end; i++) {
+                results.add(BatchItemResultDTO.builder()
+                        .index(i)
+                        .id(ids != null ? ids[i] : null)
+                        .fileName(files[i].getOriginalFilename())
+                        .status(BatchItemResultDTO.Status.FAILED)
+                        .error(e.getMessage())
+                        .build());
+            }
+        } finally {
+            for (InputStream stream : streams) {
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                    // Spooled multipart content; nothing useful to do
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<BatchItemResultDTO> runInChunks(List<String> ids, ChunkOperation operation) throws Exception {
+        List<Future<List<BatchItemResultDTO>>> futures = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += bulkChunkSize) {
+            List<String> chunk = ids.subList(start, Math.min(ids.size(), start + bulkChunkSize));
+            int offset = start;
+            // One metadata permit per chunk; the chunk operations sample their own round-trips
+            futures.add(filenetExecutor.submit(() -> bulkheads.metadata().callUnsampled(() -> operation.apply(chunk, offset))));
+        }
+
+        List<BatchItemResultDTO> results = new ArrayList<>(ids.size());
+        for (Future<List<BatchItemResultDTO>> future : futures) {
+            try {
+                results.addAll(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CapacityExceededException) {
+                    throw (CapacityExceededException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    private List<BatchItemResultDTO> deleteChunk(List<String> ids, int offset) {
+        Map<Integer, Document> documents = new LinkedHashMap<>();
+        List<BatchItemResultDTO> results = new ArrayList<>(Collections.nCopies(ids.size(), null));
+        UpdatingBatch batch = UpdatingBatch.createUpdatingBatchInstance(session().getDomain(), RefreshMode.NO_REFRESH);
+        for (int i = 0; i < ids.size(); i++) {
+            if (!Id.isId(ids.get(i))) {
+                results.set(i, failed(offset + i, ids.get(i), "Invalid document ID"));
+                continue;
+            }
+            // A bare reference is enough to delete; no fetch round-trip
+            Document doc = Factory.Document.getInstance(objectStore(), ClassNames.DOCUMENT, new Id(ids.get(i)));
+            doc.delete();
+            batch.add(doc, null);
+            documents.put(i, doc);
+        }
+
+        try {
+            if (!documents.isEmpty()) {
+                long started = System.nanoTime();
+                metrics.record("updateBatch", null, () -> {
+                    batch.updateBatch();
+                    return null;
                 });
-                dto.setCustomProperties(filteredProps);
+                sampleBatch(bulkheads.metadata(), started, documents.size());
             }
-            
-            results.add(dto);
+            documents.keySet().forEach(i -> results.set(i, deleted(offset + i, ids.get(i))));
+        } catch (Exception batchFailure) {
+            observeFailure(bulkheads.metadata(), batchFailure);
+            // The batch is atomic; retry one by one so a single bad ID does not fail its neighbours
+            documents.forEach((i, doc) -> {
+                try {
+                    long started = System.nanoTime();
+                    doc.save(RefreshMode.NO_REFRESH);
+                    bulkheads.metadata().onSample(System.nanoTime() - started);
+                    results.set(i, deleted(offset + i, ids.get(i)));
+                } catch (RuntimeException e) {
+                    observeFailure(bulkheads.metadata(), e);
+                    results.set(i, e instanceof EngineRuntimeException
+                            && ((EngineRuntimeException) e).getExceptionCode() == ExceptionCode.E_OBJECT_NOT_FOUND
+                            ? BatchItemResultDTO.builder().index(offset + i).id(ids.get(i))
+                                    .status(BatchItemResultDTO.Status.NOT_FOUND).build()
+                            : failed(offset + i, ids.get(i), e.getMessage()));
+                }
+            });
+        }
+        return results;
+    }
+
+    private List<BatchItemResultDTO> getChunk(List<String> ids, int offset, PropertyFilter filter,
+                                              DocumentMapper.MappingPlan plan, boolean cacheable) {
+        List<BatchItemResultDTO> results = new ArrayList<>(Collections.nCopies(ids.size(), null));
+        List<Integer> fetched = new ArrayList<>(ids.size());
+        RetrievingBatch batch = RetrievingBatch.createRetrievingBatchInstance(session().getDomain());
+        for (int i = 0; i < ids.size(); i++) {
+            if (!Id.isId(ids.get(i))) {
+                results.set(i, failed(offset + i, ids.get(i), "Invalid document ID"));
+                continue;
+            }
+            batch.add(Factory.Document.getInstance(objectStore(), ClassNames.DOCUMENT, new Id(ids.get(i))), filter);
+            fetched.add(i);
+        }
+
+        if (fetched.isEmpty()) {
+            return results;
+        }
+        try {
+            long started = System.nanoTime();
+            metrics.record("retrieveBatch", null, () -> {
+                batch.retrieveBatch();
+                return null;
+            });
+            sampleBatch(bulkheads.metadata(), started, fetched.size());
+        } catch (Exception e) {
+            observeFailure(bulkheads.metadata(), e);
+            fetched.forEach(i -> results.set(i, failed(offset + i, ids.get(i), e.getMessage())));
+            return results;
         }
 
+        // Handles come back in the order the objects were added
+        List<?> handles = batch.getBatchItemHandles(null);
+        for (int h = 0; h < handles.size(); h++) {
+            BatchItemHandle handle = (BatchItemHandle) handles.get(h);
+            int i = fetched.get(h);
+            if (handle.hasException()) {
+                EngineRuntimeException e = handle.getException();
+                results.set(i, e.getExceptionCode() == ExceptionCode.E_OBJECT_NOT_FOUND
+                        ? BatchItemResultDTO.builder().index(offset + i).id(ids.get(i))
+                                .status(BatchItemResultDTO.Status.NOT_FOUND).build()
+                        : failed(offset + i, ids.get(i), e.getMessage()));
+                continue;
+            }
+            DocumentPropertiesDTO dto = plan.map((Document) handle.getObject());
+            if (cacheable) {
+                metadataCache.put(currentUsername(), objectStore().get_SymbolicName(), ids.get(i), dto);
+            }
+            results.set(i, BatchItemResultDTO.builder()
+                    .index(offset + i)
+                    .id(ids.get(i))
+                    .status(BatchItemResultDTO.Status.FOUND)
+                    .document(dto)
+                    .build());
+        }
         return results;
     }
 
-    private DocumentPropertiesDTO mapDocumentToDTO(Document document) {
-        Properties props = document.getProperties();
+    // A batch carries many items per round-trip; the limiter sees the per-item cost so bulk work is not read as overload
+    private static void sampleBatch(ConcurrencyLimiter limiter, long startedNanos, int items) {
+        limiter.onSample((System.nanoTime() - startedNanos) / Math.max(1, items));
+    }
+
+    private static void observeFailure(ConcurrencyLimiter limiter, Exception e) {
+        if (ConcurrencyLimiter.isOverload(e)) {
+            limiter.onDrop();
+        }
+    }
+
+    private BatchItemResultDTO deleted(int index, String id) {
+        metadataCache.invalidate(objectStore().get_SymbolicName(), id);
+        contentCache.invalidate(contentKeyPrefix(id));
+        return BatchItemResultDTO.builder().index(index).id(id).status(BatchItemResultDTO.Status.DELETED).build();
+    }
+
+    private static BatchItemResultDTO failed(int index, String id, String error) {
+        return BatchItemResultDTO.builder().index(index).id(id).status(BatchItemResultDTO.Status.FAILED).error(error).build();
+    }
+
+    private Document newDocument(Id id, InputStream content, String documentClass, String mimeType,
+                                 String fileName) throws Exception {
+        return newDocument(id, List.of(contentTransfer(content, mimeType, fileName)), documentClass, mimeType);
+    }
+
+    private Document newDocument(Id id, List<ContentTransfer> elements, String documentClass,
+                                 String mimeType) throws Exception {
+        Document doc = id != null
+                ? Factory.Document.createInstance(objectStore(), documentClass, id)
+                : Factory.Document.createInstance(objectStore(), documentClass);
+
+        ContentElementList contentList = Factory.ContentElement.createList();
+        for (ContentTransfer element : elements) {
+            contentList.add(element);
+        }
+        doc.set_ContentElements(contentList);
+        doc.set_MimeType(mimeType);
+        metrics.record("checkin", documentClass, () -> {
+            doc.checkin(CheckinType.MAJOR_VERSION, "Initial Version");
+            return null;
+        });
+        return doc;
+    }
+
+    private static ContentTransfer contentTransfer(InputStream content, String mimeType, String fileName) {
+        // The stream is only consumed while the checkin is saved, so bytes go straight to the CE
+        ContentTransfer contentTransfer = Factory.ContentTransfer.createInstance();
+        contentTransfer.setCaptureSource(content);
+        contentTransfer.set_ContentType(mimeType);
+        if (fileName != null && !fileName.isEmpty()) {
+            contentTransfer.set_RetrievalName(fileName);
+        }
+        return contentTransfer;
+    }
+
+    private FileNetSession session() {
+        FileNetSession session = sessionManager.currentSession();
+        if (session == null) {
+            throw new IllegalStateException("No FileNet session is bound to the current thread");
+        }
+        return session;
+    }
+
+    private String currentUsername() {
+        FileNetSession session = sessionManager.currentSession();
+        return session != null ? session.getUsername() : null;
+    }
+
+    private DocumentPropertiesDTO cachedDocument(String id) throws Exception {
+        DocumentPropertiesDTO cached = metadataCache.get(currentUsername(), objectStore().get_SymbolicName(), id);
+        if (cached != null && (!revalidateMetadata || bulkheads.metadata().call(() -> isCurrent(id, cached)))) {
+            return cached;
+        }
+        return null;
+    }
+
+    private Document fetchDocument(String id, PropertyFilter filter) throws Exception {
+        return metrics.record("fetchInstance", null, () -> Factory.Document.fetchInstance(objectStore(), id, filter));
+    }
+
+    private static DocumentPropertiesDTO project(DocumentPropertiesDTO document, SearchProjection projection) {
         Map<String, Object> customProperties = new HashMap<>();
-        
-        // Get all properties and filter out system properties
-        for (Object propObj : props) {
-            com.filenet.api.property.Property prop = (com.filenet.api.property.Property) propObj;
-            if (!isSystemProperty(prop.getPropertyName())) {
-                customProperties.put(prop.getPropertyName(), prop.getObjectValue());
+        for (String name : projection.getCustomProperties()) {
+            if (document.getCustomProperties() != null && document.getCustomProperties().containsKey(name)) {
+                customProperties.put(name, document.getCustomProperties().get(name));
             }
         }
-
         return DocumentPropertiesDTO.builder()
-                .id(document.get_Id().toString())
-                .name(document.get_Name())
-                .documentClass(document.get_ClassDescription().get_SymbolicName())
-                .mimeType(document.get_MimeType())
-                .dateCreated(document.get_DateCreated())
-                .dateLastModified(document.get_DateLastModified())
-                .creator(document.get_Creator())
-                .lastModifier(document.get_LastModifier())
+                .id(document.getId())
+                .name(document.getName())
+                .documentClass(document.getDocumentClass())
+                .mimeType(document.getMimeType())
+                .dateCreated(document.getDateCreated())
+                .dateLastModified(document.getDateLastModified())
+                .creator(document.getCreator())
+                .lastModifier(document.getLastModifier())
                 .customProperties(customProperties)
                 .build();
     }
 
-    private boolean isSystemProperty(String propertyName) {
-        return propertyName.startsWith("F_") || 
-               propertyName.equals(PropertyNames.ID) ||
-               propertyName.equals(PropertyNames.NAME) ||
-               propertyName.equals(PropertyNames.MIME_TYPE) ||
-               propertyName.equals(PropertyNames.DATE_CREATED) ||
-               propertyName.equals(PropertyNames.DATE_LAST_MODIFIED) ||
-               propertyName.equals(PropertyNames.CREATOR) ||
-               propertyName.equals(PropertyNames.LAST_MODIFIER);
+    private static String etag(String id, Date lastModified, SearchProjection projection) {
+        if (id == null || lastModified == null) {
+            return null;
+        }
+        // Each projection is a different representation, so it gets its own strong validator
+        String tag = (Id.isId(id) ? new Id(id).toString() : id) + "-" + lastModified.getTime();
+        if (projection != null) {
+            tag += "-" + Integer.toHexString(String.join(",", projection.getCustomProperties()).hashCode());
+        }
+        return "\"" + tag + "\"";
+    }
+
+    private boolean isCurrent(String id, DocumentPropertiesDTO cached) throws Exception {
+        // Cheap single-property fetch; also re-checks the caller's access to the document
+        try {
+            Document doc = metrics.record("fetchInstance", null,
+                    () -> Factory.Document.fetchInstance(objectStore(), id, LAST_MODIFIED_FILTER));
+            return Objects.equals(doc.get_DateLastModified(), cached.getDateLastModified());
+        } catch (RuntimeException e) {
+            metadataCache.invalidate(objectStore().get_SymbolicName(), id);
+            throw e;
+        }
+    }
+
+    private String contentKeyPrefix(String id) {
+        return objectStore().get_SymbolicName() + "/" + (Id.isId(id) ? new Id(id).toString() : id) + "/";
+    }
+
+    private ObjectStore objectStore() {
+        return sessionManager.currentObjectStore();
+    }
+
+    private static PropertyFilter createFilter(int maxRecursion, String... propertyNames) {
+        PropertyFilter filter = new PropertyFilter();
+        filter.addIncludeProperty(maxRecursion, null, null, String.join(" ", propertyNames), null);
+        return filter;
+    }
+
+    private static PropertyFilter createTypeFilter(FilteredPropertyType type) {
+        PropertyFilter filter = new PropertyFilter();
+        filter.addIncludeType(0, null, null, type, null);
+        return filter;
+    }
+
+    // One object store's share of a federated search: a continuable query with one page prefetched
+    private class StoreCursor {
+
+        private final String storeName;
+        private final SearchRequestDTO searchRequest;
+        private final DocumentMapper.MappingPlan plan;
+        private PageIterator pageIterator;
+        private Future<List<DocumentPropertiesDTO>> pending;
+        private Iterator<DocumentPropertiesDTO> buffered = Collections.emptyIterator();
+        private DocumentPropertiesDTO head;
+
+        private StoreCursor(String storeName, SearchRequestDTO searchRequest, DocumentMapper.MappingPlan plan) {
+            this.storeName = storeName;
+            this.searchRequest = searchRequest;
+            this.plan = plan;
+        }
+
+        private void prefetch() {
+            pending = filenetExecutor.submit(this::fetchPage);
+        }
+
+        private List<DocumentPropertiesDTO> fetchPage() throws Exception {
+            long started = System.nanoTime();
+            if (pageIterator == null) {
+                pageIterator = openPageIterator(session().getObjectStore(storeName), searchRequest);
+            }
+            List<DocumentPropertiesDTO> results = metrics.record("nextPage", null, pageIterator::nextPage)
+                    ? mapRows("federated", null, Arrays.asList(pageIterator.getCurrentPage()).iterator(),
+                            Integer.MAX_VALUE, plan)
+                    : new ArrayList<>();
+            results.forEach(dto -> dto.setObjectStore(storeName));
+            bulkheads.search().onSample(System.nanoTime() - started);
+            return results;
+        }
+
+        private boolean advance(List<String> skipped) throws InterruptedException {
+            while (!buffered.hasNext()) {
+                if (pending == null) {
+                    return false;
+                }
+                List<DocumentPropertiesDTO> page;
+                try {
+                    page = pending.get(storeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | ExecutionException e) {
+                    // A slow or failing store drops out; the others keep streaming
+                    cancel();
+                    skipped.add(storeName);
+                    return false;
+                }
+                pending = null;
+                if (page.isEmpty()) {
+                    return false;
+                }
+                buffered = page.iterator();
+                prefetch();
+            }
+            head = buffered.next();
+            return true;
+        }
+
+        private DocumentPropertiesDTO head() {
+            return head;
+        }
+
+        private void cancel() {
+            if (pending != null) {
+                pending.cancel(true);
+                pending = null;
+            }
+        }
+    }
+
+    private interface ChunkOperation {
+        List<BatchItemResultDTO> apply(List<String> ids, int offset) throws Exception;
+    }
+
+    public interface PageHandler {
+        void onPage(List<DocumentPropertiesDTO> page) throws IOException;
+    }
+
+    public interface ChangeHandler {
+        void onChanges(List<ChangeDTO> changes) throws IOException;
     }
-}
\ No newline at end of file
+}
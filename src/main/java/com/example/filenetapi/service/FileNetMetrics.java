@@ -0,0 +1,114 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class FileNetMetrics {
+
+    private static final String NONE = "none";
+    private static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final int maxClassTags;
+    private final Set<String> classTags = ConcurrentHashMap.newKeySet();
+
+    public FileNetMetrics(MeterRegistry registry, @Value("${filenet.metrics.max-class-tags:50}") int maxClassTags) {
+        this.registry = registry;
+        this.maxClassTags = maxClassTags;
+    }
+
+    public <T> T record(String operation, String documentClass, Call<T> call) throws Exception {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return call.call();
+        } catch (EngineRuntimeException e) {
+            outcome = e.getExceptionCode() == ExceptionCode.E_OBJECT_NOT_FOUND ? "not_found" : "error";
+            throw e;
+        } catch (Exception e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            Timer.builder("filenet.ce.calls")
+                    .description("Content Engine round-trips")
+                    .tag("operation", operation)
+                    .tag("class", classTag(documentClass))
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordMapping(String mode, String documentClass, int rows, long mappingNanos) {
+        DistributionSummary.builder("filenet.search.rows")
+                .description("Rows returned per search call or page")
+                .tag("mode", mode)
+                .tag("class", classTag(documentClass))
+                .register(registry)
+                .record(rows);
+        Timer.builder("filenet.mapping")
+                .description("Time spent mapping CE objects to DTOs")
+                .tag("mode", mode)
+                .register(registry)
+                .record(mappingNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSerialization(String mode, long bytes, long serializationNanos) {
+        DistributionSummary.builder("filenet.search.bytes")
+                .description("Response bytes written per streamed search")
+                .baseUnit("bytes")
+                .tag("mode", mode)
+                .register(registry)
+                .record(bytes);
+        Timer.builder("filenet.serialization")
+                .description("Time spent serializing streamed search results")
+                .tag("mode", mode)
+                .register(registry)
+                .record(serializationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTransfer(String direction, long bytes, long elapsedNanos) {
+        DistributionSummary.builder("filenet.content.bytes")
+                .description("Content bytes transferred per request")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .register(registry)
+                .record(bytes);
+        if (elapsedNanos > 0) {
+            DistributionSummary.builder("filenet.content.throughput")
+                    .description("Content transfer throughput")
+                    .baseUnit("bytes/second")
+                    .tag("direction", direction)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(bytes * 1_000_000_000d / elapsedNanos);
+        }
+    }
+
+    private String classTag(String documentClass) {
+        if (documentClass == null || documentClass.isEmpty()) {
+            return NONE;
+        }
+        // Class names come from requests, so cap the distinct tag values a client can create
+        if (classTags.contains(documentClass) || classTags.size() < maxClassTags) {
+            classTags.add(documentClass);
+            return documentClass;
+        }
+        return OTHER;
+    }
+
+    public interface Call<T> {
+        T call() throws Exception;
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.filenetapi.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only, segmented write-ahead log for queued uploads.
+// Record layout: magic (int), type (byte), body length (long), body, CRC32C of the body (int).
+// The body starts with the metadata length (int) and metadata, followed by the raw content.
+final class IngestLog implements Closeable {
+
+    static final byte ENQUEUED = 1;
+    static final byte COMPLETED = 2;
+    static final byte FAILED = 3;
+
+    private static final int MAGIC = 0x46574C31;
+    private static final int HEADER_BYTES = 13;
+    private static final int TRAILER_BYTES = 4;
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Map<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final AtomicLong completedRecords = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private long syncedRecords;
+    private Segment current;
+
+    interface RecordHandler {
+        void handle(Record record) throws IOException;
+    }
+
+    IngestLog(Path directory, long segmentBytes, RecordHandler replayHandler) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().forEach(files::add);
+        }
+        long lastIndex = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long index = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            Segment segment = new Segment(index, FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            segments.put(index, segment);
+            totalBytes.addAndGet(segment.channel.size());
+            replay(segment, replayHandler);
+            lastIndex = Math.max(lastIndex, index);
+        }
+
+        // Never append after a possibly torn tail; new records always start a fresh segment
+        synchronized (appendLock) {
+            rotate(lastIndex + 1);
+        }
+    }
+
+    // Returns null when the record would take the log past maxTotalBytes
+    Reservation reserve(byte type, byte[] metadata, long contentLength, long maxTotalBytes) throws IOException {
+        long bodyLength = 4 + metadata.length + contentLength;
+        long recordLength = HEADER_BYTES + bodyLength + TRAILER_BYTES;
+        Segment segment;
+        long offset;
+        synchronized (appendLock) {
+            if (totalBytes.get() + recordLength > maxTotalBytes) {
+                return null;
+            }
+            // Oversized records still get written, alone in their own segment
+            if (current.size > 0 && current.size + recordLength > segmentBytes) {
+                rotate(current.index + 1);
+            }
+            segment = current;
+            offset = segment.size;
+            segment.size += recordLength;
+            totalBytes.addAndGet(recordLength);
+
+            // The header goes down under the lock so a crash never leaves a hole that hides later records
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).put(type).putLong(bodyLength).flip();
+            writeFully(segment.channel, header, offset);
+        }
+
+        Reservation reservation = new Reservation(segment, offset + HEADER_BYTES, bodyLength, 4 + metadata.length);
+        ByteBuffer length = ByteBuffer.allocate(4).putInt(metadata.length).flip();
+        reservation.write(length.array(), 0, 4);
+        reservation.write(metadata, 0, metadata.length);
+        return reservation;
+    }
+
+    long append(byte type, byte[] metadata) throws IOException {
+        // Status records are tiny and are what lets segments be deleted, so they are never refused
+        return reserve(type, metadata, 0, Long.MAX_VALUE).complete();
+    }
+
+    void sync(long record) throws IOException {
+        // Group commit: whoever gets the lock forces every dirty segment, covering all records completed so far
+        synchronized (syncLock) {
+            if (syncedRecords >= record) {
+                return;
+            }
+            long target = completedRecords.get();
+            for (Segment segment : segments.values()) {
+                if (segment.dirty.getAndSet(false)) {
+                    segment.channel.force(false);
+                }
+            }
+            syncedRecords = target;
+        }
+    }
+
+    InputStream openContent(long segmentIndex, long offset, long length) throws IOException {
+        Segment segment = segments.get(segmentIndex);
+        if (segment == null) {
+            throw new IOException("Ingest log segment " + segmentIndex + " no longer exists");
+        }
+        return new SegmentInputStream(segment.channel, offset, length);
+    }
+
+    long currentSegment() {
+        synchronized (appendLock) {
+            return current.index;
+        }
+    }
+
+    List<Long> segmentIndexes() {
+        return new ArrayList<>(segments.keySet());
+    }
+
+    long lastModifiedMillis(long segmentIndex) {
+        Segment segment = segments.get(segmentIndex);
+        return segment != null ? segment.lastWriteMillis : 0;
+    }
+
+    void deleteSegment(long segmentIndex) throws IOException {
+        synchronized (appendLock) {
+            if (current.index == segmentIndex) {
+                return;
+            }
+            Segment segment = segments.remove(segmentIndex);
+            if (segment != null) {
+                totalBytes.addAndGet(-segment.size);
+                segment.channel.close();
+                Files.deleteIfExists(segmentPath(segmentIndex));
+                syncDirectory();
+            }
+        }
+    }
+
+    long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    private void rotate(long index) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        current = new Segment(index, channel);
+        segments.put(index, current);
+        syncDirectory();
+    }
+
+    private void syncDirectory() throws IOException {
+        // Forcing a segment's data does not persist its directory entry, so a crash could lose or resurrect the file
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%020d", index) + SUFFIX);
+    }
+
+    private static void replay(Segment segment, RecordHandler handler) throws IOException {
+        long fileSize = segment.channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES + TRAILER_BYTES <= fileSize) {
+            header.clear();
+            readFully(segment.channel, header, position);
+            header.flip();
+            byte type = header.getInt() == MAGIC ? header.get() : 0;
+            long bodyLength = header.getLong(HEADER_BYTES - 8);
+            long recordLength = HEADER_BYTES + bodyLength + TRAILER_BYTES;
+            if (type == 0 || bodyLength < 4 || position + recordLength > fileSize) {
+                break;
+            }
+
+            long bodyOffset = position + HEADER_BYTES;
+            // Reservations whose writer died mid-upload fail the checksum and are skipped
+            if (checksum(segment.channel, bodyOffset, bodyLength) == readInt(segment.channel, bodyOffset + bodyLength)) {
+                int metadataLength = readInt(segment.channel, bodyOffset);
+                ByteBuffer metadata = ByteBuffer.allocate(metadataLength);
+                readFully(segment.channel, metadata, bodyOffset + 4);
+                long contentOffset = bodyOffset + 4 + metadataLength;
+                handler.handle(new Record(type, metadata.array(), segment.index, contentOffset,
+                        bodyLength - 4 - metadataLength));
+            }
+            position += recordLength;
+        }
+        segment.size = fileSize;
+    }
+
+    private static int checksum(FileChannel channel, long offset, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocate(65536);
+        long position = offset;
+        long remaining = length;
+        while (remaining > 0) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return -1;
+            }
+            buffer.flip();
+            crc.update(buffer);
+            position += read;
+            remaining -= read;
+        }
+        return (int) crc.getValue();
+    }
+
+    private static int readInt(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        readFully(channel, buffer, position);
+        return buffer.flip().getInt();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of ingest log segment");
+            }
+            offset += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    static final class Record {
+        final byte type;
+        final byte[] metadata;
+        final long segmentIndex;
+        final long contentOffset;
+        final long contentLength;
+
+        private Record(byte type, byte[] metadata, long segmentIndex, long contentOffset, long contentLength) {
+            this.type = type;
+            this.metadata = metadata;
+            this.segmentIndex = segmentIndex;
+            this.contentOffset = contentOffset;
+            this.contentLength = contentLength;
+        }
+    }
+
+    private static final class Segment {
+        private final long index;
+        private final FileChannel channel;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile long lastWriteMillis = System.currentTimeMillis();
+        private long size;
+
+        private Segment(long index, FileChannel channel) {
+            this.index = index;
+            this.channel = channel;
+        }
+    }
+
+    // Writes one record body at its reserved position; concurrent reservations never overlap
+    final class Reservation {
+        private final Segment segment;
+        private final long bodyOffset;
+        private final long bodyLength;
+        private final CRC32C crc = new CRC32C();
+        private final long contentOffset;
+        private long written;
+
+        private Reservation(Segment segment, long bodyOffset, long bodyLength, int metadataBytes) {
+            this.segment = segment;
+            this.bodyOffset = bodyOffset;
+            this.bodyLength = bodyLength;
+            this.contentOffset = bodyOffset + metadataBytes;
+        }
+
+        void write(byte[] buffer, int offset, int length) throws IOException {
+            if (written + length > bodyLength) {
+                throw new IOException("Content is longer than its declared length");
+            }
+            crc.update(buffer, offset, length);
+            writeFully(segment.channel, ByteBuffer.wrap(buffer, offset, length), bodyOffset + written);
+            written += length;
+        }
+
+        long segmentIndex() {
+            return segment.index;
+        }
+
+        long contentOffset() {
+            return contentOffset;
+        }
+
+        long complete() throws IOException {
+            if (written != bodyLength) {
+                throw new IOException("Content ended " + (bodyLength - written) + " bytes short of its declared length");
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES).putInt((int) crc.getValue()).flip();
+            writeFully(segment.channel, trailer, bodyOffset + bodyLength);
+            segment.lastWriteMillis = System.currentTimeMillis();
+            segment.dirty.set(true);
+            return completedRecords.incrementAndGet();
+        }
+    }
+
+    private static final class SegmentInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        private SegmentInputStream(FileChannel channel, long position, long length) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+            if (read < 0) {
+                return -1;
+            }
+            position += read;
+            remaining -= read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.IngestTicketDTO;
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
+import com.filenet.api.util.Id;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class IngestQueue {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private FileNetSessionManager sessionManager;
+
+    @Autowired
+    private BufferPool bufferPool;
+
+    @Value("${filenet.ingest.directory:${java.io.tmpdir}/filenet-ingest}")
+    private Path directory;
+
+    @Value("${filenet.ingest.segment-bytes:268435456}")
+    private long segmentBytes;
+
+    @Value("${filenet.ingest.max-bytes:10737418240}")
+    private long maxBytes;
+
+    @Value("${filenet.ingest.workers:4}")
+    private int workers;
+
+    @Value("${filenet.ingest.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${filenet.ingest.retry-backoff:PT2S}")
+    private Duration retryBackoff;
+
+    @Value("${filenet.ingest.retention:PT24H}")
+    private Duration retention;
+
+    @Value("${filenet.ingest.retry-after-seconds:30}")
+    private long retryAfterSeconds;
+
+    @Value("${filenet.session.pass-through-credentials:false}")
+    private boolean passThroughCredentials;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final Map<String, String> ticketsByIdempotencyKey = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> pendingBySegment = new ConcurrentHashMap<>();
+    private final BlockingQueue<Ticket> ready = new LinkedBlockingQueue<>();
+    private final AtomicInteger inProgress = new AtomicInteger();
+
+    private volatile IngestLog log;
+    private ExecutorService workerPool;
+    private ScheduledExecutorService retryScheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() throws IOException {
+        if (log != null) {
+            return;
+        }
+        // Replay rebuilds every ticket; whatever was queued or in flight at shutdown is drained again
+        log = new IngestLog(directory, segmentBytes, this::replay);
+        tickets.values().stream()
+                .filter(ticket -> ticket.status == IngestTicketDTO.Status.QUEUED)
+                .sorted((a, b) -> a.submittedAt.compareTo(b.submittedAt))
+                .forEach(ready::add);
+
+        workerPool = Executors.newFixedThreadPool(workers, daemon("filenet-ingest-"));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(daemon("filenet-ingest-retry-"));
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws IOException {
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+            retryScheduler.shutdownNow();
+        }
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+
+    public IngestTicketDTO enqueue(InputStream content, long contentLength, String documentClass, String mimeType,
+                                   String fileName, String idempotencyKey) throws IOException {
+        // Drained uploads are written with the service account, which would bypass per-user CE permissions
+        if (passThroughCredentials) {
+            throw new UnsupportedOperationException(
+                    "Async ingest is disabled while caller credentials are passed through; upload synchronously instead");
+        }
+        IngestLog currentLog = log;
+        if (currentLog == null) {
+            throw new CapacityExceededException("Ingest queue is not running, retry later", retryAfterSeconds);
+        }
+        if (documentClass == null || documentClass.isEmpty()) {
+            throw new IllegalArgumentException("documentClass is required");
+        }
+        String owner = currentUsername();
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), owner, idempotencyKey, Id.createId().toString(),
+                documentClass, mimeType, fileName, contentLength, new Date());
+
+        String keyScope = idempotencyKey != null && !idempotencyKey.isEmpty() ? owner + "\u0000" + idempotencyKey : null;
+        if (keyScope != null) {
+            String existing = ticketsByIdempotencyKey.putIfAbsent(keyScope, ticket.ticketId);
+            if (existing != null) {
+                Ticket previous = tickets.get(existing);
+                if (previous == null) {
+                    throw new IllegalStateException("A request with this idempotency key is still being accepted");
+                }
+                return previous.toDTO();
+            }
+        }
+
+        try {
+            // The size check and the reservation happen under the log's append lock, so concurrent uploads cannot overshoot
+            IngestLog.Reservation reservation = currentLog.reserve(IngestLog.ENQUEUED, ticket.encode(), contentLength, maxBytes);
+            if (reservation == null) {
+                throw new CapacityExceededException("Ingest queue is full, retry later", retryAfterSeconds);
+            }
+            byte[] buffer = bufferPool.acquire();
+            try {
+                long remaining = contentLength;
+                while (remaining > 0) {
+                    int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        break;
+                    }
+                    reservation.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            } finally {
+                bufferPool.release(buffer);
+            }
+            // Acknowledge only once the record is on disk; concurrent uploads share one fsync
+            currentLog.sync(reservation.complete());
+
+            ticket.segmentIndex = reservation.segmentIndex();
+            ticket.contentOffset = reservation.contentOffset();
+        } catch (IOException | RuntimeException e) {
+            if (keyScope != null) {
+                ticketsByIdempotencyKey.remove(keyScope, ticket.ticketId);
+            }
+            throw e;
+        }
+
+        pendingBySegment.computeIfAbsent(ticket.segmentIndex, k -> new AtomicInteger()).incrementAndGet();
+        tickets.put(ticket.ticketId, ticket);
+        ready.add(ticket);
+        return ticket.toDTO();
+    }
+
+    public IngestTicketDTO get(String ticketId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !Objects.equals(ticket.owner, currentUsername())) {
+            return null;
+        }
+        return ticket.toDTO();
+    }
+
+    public int getQueuedCount() {
+        return ready.size() + inProgress.get();
+    }
+
+    public long getLogBytes() {
+        IngestLog currentLog = log;
+        return currentLog != null ? currentLog.getTotalBytes() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${filenet.ingest.cleanup-interval:PT1M}")
+    public void cleanUp() throws IOException {
+        IngestLog currentLog = log;
+        if (currentLog == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+
+        // A segment goes once every upload in it is settled and its status records are past retention
+        long current = currentLog.currentSegment();
+        for (long segment : currentLog.segmentIndexes()) {
+            AtomicInteger pending = pendingBySegment.get(segment);
+            if (segment != current && (pending == null || pending.get() == 0)
+                    && currentLog.lastModifiedMillis(segment) < cutoff) {
+                currentLog.deleteSegment(segment);
+                pendingBySegment.remove(segment);
+            }
+        }
+
+        tickets.values().removeIf(ticket -> {
+            boolean expired = ticket.completedAt != null && ticket.completedAt.getTime() < cutoff;
+            if (expired && ticket.idempotencyKey != null) {
+                ticketsByIdempotencyKey.remove(ticket.owner + "\u0000" + ticket.idempotencyKey, ticket.ticketId);
+            }
+            return expired;
+        });
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Ticket ticket;
+            try {
+                ticket = ready.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            inProgress.incrementAndGet();
+            try {
+                drain(ticket);
+            } finally {
+                inProgress.decrementAndGet();
+            }
+        }
+    }
+
+    private void drain(Ticket ticket) {
+        ticket.status = IngestTicketDTO.Status.IN_PROGRESS;
+        ticket.attempts++;
+        try {
+            // Queued uploads outlive the request, so they are written with the service account
+            FileNetSession session = sessionManager.serviceSession();
+            try (FileNetSessionManager.Binding binding = sessionManager.bind(session);
+                 InputStream content = log.openContent(ticket.segmentIndex, ticket.contentOffset, ticket.contentLength)) {
+                documentService.createDocumentFromLocalContent(ticket.documentId, content, ticket.contentLength,
+                        ticket.documentClass, ticket.mimeType, ticket.fileName);
+            }
+            settle(ticket, IngestTicketDTO.Status.COMPLETED, null);
+        } catch (EngineRuntimeException e) {
+            // The ID is assigned at enqueue time, so a duplicate means an earlier attempt already created it
+            if (e.getExceptionCode() == ExceptionCode.E_NOT_UNIQUE) {
+                settle(ticket, IngestTicketDTO.Status.COMPLETED, null);
+            } else {
+                retryOrFail(ticket, e);
+            }
+        } catch (IllegalArgumentException e) {
+            settle(ticket, IngestTicketDTO.Status.FAILED, e.getMessage());
+        } catch (CapacityExceededException e) {
+            // Local back-pressure rather than a failed write, so it does not use up an attempt
+            ticket.attempts--;
+            requeue(ticket, e, TimeUnit.SECONDS.toMillis(e.getRetryAfterSeconds()));
+        } catch (Exception e) {
+            retryOrFail(ticket, e);
+        }
+    }
+
+    private void retryOrFail(Ticket ticket, Exception e) {
+        if (ticket.attempts >= maxAttempts) {
+            settle(ticket, IngestTicketDTO.Status.FAILED, e.getMessage());
+            return;
+        }
+        requeue(ticket, e, Math.min(retryBackoff.toMillis() << Math.min(ticket.attempts - 1, 10),
+                TimeUnit.MINUTES.toMillis(5)));
+    }
+
+    private void requeue(Ticket ticket, Exception e, long delayMillis) {
+        ticket.status = IngestTicketDTO.Status.QUEUED;
+        ticket.error = e.getMessage();
+        retryScheduler.schedule(() -> ready.add(ticket), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void settle(Ticket ticket, IngestTicketDTO.Status status, String error) {
+        ticket.status = status;
+        ticket.error = error;
+        ticket.completedAt = new Date();
+        try {
+            // Not synced: if this record is lost, the replayed upload hits the duplicate ID and settles again
+            log.append(status == IngestTicketDTO.Status.COMPLETED ? IngestLog.COMPLETED : IngestLog.FAILED, ticket.encode());
+        } catch (IOException ignored) {
+            // Same recovery path as a lost record
+        }
+        AtomicInteger pending = pendingBySegment.get(ticket.segmentIndex);
+        if (pending != null) {
+            pending.decrementAndGet();
+        }
+    }
+
+    private void replay(IngestLog.Record record) throws IOException {
+        Ticket decoded = Ticket.decode(record.metadata);
+        if (record.type == IngestLog.ENQUEUED) {
+            decoded.segmentIndex = record.segmentIndex;
+            decoded.contentOffset = record.contentOffset;
+            decoded.contentLength = record.contentLength;
+            tickets.put(decoded.ticketId, decoded);
+            pendingBySegment.computeIfAbsent(record.segmentIndex, k -> new AtomicInteger()).incrementAndGet();
+        } else {
+            Ticket ticket = tickets.get(decoded.ticketId);
+            if (ticket == null) {
+                // Its upload record was already compacted away; keep the outcome for status lookups
+                ticket = decoded;
+                ticket.segmentIndex = -1;
+                tickets.put(ticket.ticketId, ticket);
+            } else if (ticket.completedAt == null) {
+                AtomicInteger pending = pendingBySegment.get(ticket.segmentIndex);
+                if (pending != null) {
+                    pending.decrementAndGet();
+                }
+            }
+            ticket.status = record.type == IngestLog.COMPLETED ? IngestTicketDTO.Status.COMPLETED : IngestTicketDTO.Status.FAILED;
+            ticket.error = decoded.error;
+            ticket.completedAt = decoded.completedAt;
+        }
+        if (decoded.idempotencyKey != null) {
+            ticketsByIdempotencyKey.put(decoded.owner + "\u0000" + decoded.idempotencyKey, decoded.ticketId);
+        }
+    }
+
+    private String currentUsername() {
+        FileNetSession session = sessionManager.currentSession();
+        return session != null ? session.getUsername() : null;
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class Ticket {
+        private final String ticketId;
+        private final String owner;
+        private final String idempotencyKey;
+        private final String documentId;
+        private final String documentClass;
+        private final String mimeType;
+        private final String fileName;
+        private final Date submittedAt;
+        private long contentLength;
+        private long segmentIndex;
+        private long contentOffset;
+        private volatile IngestTicketDTO.Status status = IngestTicketDTO.Status.QUEUED;
+        private volatile String error;
+        private volatile Date completedAt;
+        private volatile int attempts;
+
+        private Ticket(String ticketId, String owner, String idempotencyKey, String documentId, String documentClass,
+                       String mimeType, String fileName, long contentLength, Date submittedAt) {
+            this.ticketId = ticketId;
+            this.owner = owner;
+            this.idempotencyKey = idempotencyKey;
+            this.documentId = documentId;
+            this.documentClass = documentClass;
+            this.mimeType = mimeType;
+            this.fileName = fileName;
+            this.contentLength = contentLength;
+            this.submittedAt = submittedAt;
+        }
+
+        private byte[] encode() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeUTF(ticketId);
+                writeNullable(out, owner);
+                writeNullable(out, idempotencyKey);
+                out.writeUTF(documentId);
+                out.writeUTF(documentClass);
+                writeNullable(out, mimeType);
+                writeNullable(out, fileName);
+                out.writeLong(submittedAt.getTime());
+                writeNullable(out, error);
+                out.writeLong(completedAt != null ? completedAt.getTime() : -1);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static Ticket decode(byte[] metadata) throws IOException {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(metadata))) {
+                Ticket ticket = new Ticket(in.readUTF(), readNullable(in), readNullable(in), in.readUTF(), in.readUTF(),
+                        readNullable(in), readNullable(in), 0, new Date(in.readLong()));
+                ticket.error = readNullable(in);
+                long completedAt = in.readLong();
+                ticket.completedAt = completedAt >= 0 ? new Date(completedAt) : null;
+                return ticket;
+            }
+        }
+
+        private static void writeNullable(DataOutputStream out, String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private static String readNullable(DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        private IngestTicketDTO toDTO() {
+            return IngestTicketDTO.builder()
+                    .ticketId(ticketId)
+                    .status(status)
+                    .documentId(status == IngestTicketDTO.Status.COMPLETED ? documentId : null)
+                    .documentClass(documentClass)
+                    .fileName(fileName)
+                    .contentLength(contentLength)
+                    .attempts(attempts)
+                    .error(error)
+                    .submittedAt(submittedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
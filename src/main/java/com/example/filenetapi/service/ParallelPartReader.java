@@ -0,0 +1,224 @@
+package com.example.filenetapi.service;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+
+// Reads the parts of a multi-element upload ahead of the CE on background threads, hashing each as it goes.
+// At most readAhead parts are in flight, each holding at most queueDepth pooled buffers, so memory does not
+// grow with the number of parts.
+final class ParallelPartReader implements AutoCloseable {
+
+    interface PartSource {
+        InputStream open() throws IOException;
+    }
+
+    private final List<PartSource> sources;
+    private final List<String> expectedSha256;
+    private final int readAhead;
+    private final int queueDepth;
+    private final BufferPool bufferPool;
+    private final AsyncTaskExecutor executor;
+    private final Part[] parts;
+    private boolean closed;
+
+    ParallelPartReader(List<PartSource> sources, List<String> expectedSha256, int readAhead, int queueDepth,
+                       BufferPool bufferPool, AsyncTaskExecutor executor) {
+        this.sources = sources;
+        this.expectedSha256 = expectedSha256;
+        this.readAhead = Math.max(1, readAhead);
+        this.queueDepth = Math.max(1, queueDepth);
+        this.bufferPool = bufferPool;
+        this.executor = executor;
+        this.parts = new Part[sources.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new Part(i);
+        }
+        for (int i = 0; i < Math.min(this.readAhead, parts.length); i++) {
+            start(i);
+        }
+    }
+
+    InputStream stream(int index) {
+        return parts[index].stream;
+    }
+
+    String getSha256(int index) {
+        return parts[index].sha256;
+    }
+
+    long getSize(int index) {
+        return parts[index].size;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Part part : parts) {
+            if (part.future != null) {
+                part.future.cancel(true);
+            }
+            Chunk chunk;
+            while ((chunk = part.queue.poll()) != null) {
+                bufferPool.release(chunk.buffer);
+            }
+        }
+    }
+
+    private synchronized void start(int index) {
+        if (!closed && index < parts.length && parts[index].future == null) {
+            Part part = parts[index];
+            part.future = executor.submit(part::produce);
+        }
+    }
+
+    private static String hex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class Chunk {
+        private static final Chunk END = new Chunk(null, 0, null);
+
+        private final byte[] buffer;
+        private final int length;
+        private final IOException failure;
+
+        private Chunk(byte[] buffer, int length, IOException failure) {
+            this.buffer = buffer;
+            this.length = length;
+            this.failure = failure;
+        }
+    }
+
+    private class Part {
+        private final int index;
+        private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(queueDepth);
+        private final PartStream stream = new PartStream(this);
+        private Future<?> future;
+        private volatile String sha256;
+        private volatile long size;
+
+        private Part(int index) {
+            this.index = index;
+        }
+
+        private void produce() {
+            try {
+                try (InputStream in = sources.get(index).open()) {
+                    MessageDigest digest = sha256();
+                    long total = 0;
+                    while (true) {
+                        byte[] buffer = bufferPool.acquire();
+                        int read = in.read(buffer);
+                        if (read < 0) {
+                            bufferPool.release(buffer);
+                            break;
+                        }
+                        digest.update(buffer, 0, read);
+                        total += read;
+                        queue.put(new Chunk(buffer, read, null));
+                    }
+
+                    String actual = hex(digest);
+                    String expected = expectedSha256 != null ? expectedSha256.get(index) : null;
+                    if (expected != null && !expected.isEmpty() && !expected.equalsIgnoreCase(actual)) {
+                        // Failing the stream fails the CE save, so a corrupt part never gets committed
+                        queue.put(new Chunk(null, 0, new IOException("Content element " + index
+                                + " checksum mismatch: expected " + expected + " but got " + actual)));
+                        return;
+                    }
+                    sha256 = actual;
+                    size = total;
+                    queue.put(Chunk.END);
+                } catch (IOException e) {
+                    queue.put(new Chunk(null, 0, e));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private class PartStream extends InputStream {
+        private final Part part;
+        private Chunk current;
+        private int position;
+        private boolean finished;
+
+        private PartStream(Part part) {
+            this.part = part;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (current == null || position == current.length) {
+                if (finished) {
+                    return -1;
+                }
+                next();
+            }
+            int count = Math.min(len, current.length - position);
+            System.arraycopy(current.buffer, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            if (current != null) {
+                bufferPool.release(current.buffer);
+                current = null;
+            }
+        }
+
+        private void next() throws IOException {
+            close();
+            // Normally already started by the read-ahead window; covers a consumer that reads out of order
+            start(part.index);
+            Chunk chunk;
+            try {
+                chunk = part.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading content element " + part.index);
+            }
+            if (chunk.failure != null) {
+                finished = true;
+                throw chunk.failure;
+            }
+            if (chunk == Chunk.END) {
+                finished = true;
+                // This part's buffers are drained, so the window can move on to the next one
+                start(part.index + readAhead);
+                return;
+            }
+            current = chunk;
+            position = 0;
+        }
+    }
+}
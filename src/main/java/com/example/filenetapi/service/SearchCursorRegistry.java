@@ -0,0 +1,86 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.collection.PageIterator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class SearchCursorRegistry {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Value("${filenet.search.cursor-ttl:PT10M}")
+    private Duration cursorTtl;
+
+    @Value("${filenet.search.max-cursors:10000}")
+    private int maxCursors;
+
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    public String register(Cursor cursor) {
+        if (cursors.size() >= maxCursors) {
+            evictExpiredCursors();
+            if (cursors.size() >= maxCursors) {
+                throw new CapacityExceededException("Too many open search cursors, retry later", 1);
+            }
+        }
+
+        byte[] bytes = new byte[18];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        cursor.expiresAtNanos = System.nanoTime() + cursorTtl.toNanos();
+        cursors.put(token, cursor);
+        return token;
+    }
+
+    public Cursor take(String token, String owner) {
+        // Tokens are single-use: the next page is always handed out under a fresh token
+        Cursor cursor = cursors.remove(token);
+        if (cursor == null || cursor.isExpired() || !Objects.equals(cursor.owner, owner)) {
+            throw new IllegalArgumentException("Unknown or expired continuation token");
+        }
+        return cursor;
+    }
+
+    public int size() {
+        return cursors.size();
+    }
+
+    @Scheduled(fixedDelayString = "${filenet.search.cursor-eviction-interval:PT1M}")
+    public void evictExpiredCursors() {
+        cursors.values().removeIf(Cursor::isExpired);
+    }
+
+    public static class Cursor {
+        private final PageIterator pageIterator;
+        private final String owner;
+        private final String[] propertiesToInclude;
+        private volatile long expiresAtNanos;
+
+        public Cursor(PageIterator pageIterator, String owner, String[] propertiesToInclude) {
+            this.pageIterator = pageIterator;
+            this.owner = owner;
+            this.propertiesToInclude = propertiesToInclude;
+        }
+
+        public PageIterator getPageIterator() {
+            return pageIterator;
+        }
+
+        public String[] getPropertiesToInclude() {
+            return propertiesToInclude;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.constants.PropertyNames;
+import com.filenet.api.property.PropertyFilter;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SearchProjection {
+
+    // Properties mapped onto the fixed DocumentPropertiesDTO fields
+    static final String[] DTO_PROPERTIES = {
+            PropertyNames.ID,
+            PropertyNames.NAME,
+            PropertyNames.MIME_TYPE,
+            PropertyNames.DATE_CREATED,
+            PropertyNames.DATE_LAST_MODIFIED,
+            PropertyNames.CREATOR,
+            PropertyNames.LAST_MODIFIER
+    };
+
+    private static final Pattern PROPERTY_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Pattern SELECT_ALL = Pattern.compile(
+            "^(\\s*SELECT\\s+(?:DISTINCT\\s+)?(?:TOP\\s+\\d+\\s+)?)\\*(\\s+FROM\\s)", Pattern.CASE_INSENSITIVE);
+
+    private final String[] customProperties;
+    private final PropertyFilter propertyFilter;
+    private final String selectList;
+
+    private SearchProjection(String[] customProperties) {
+        this.customProperties = customProperties;
+
+        Set<String> columns = new LinkedHashSet<>();
+        for (String name : DTO_PROPERTIES) {
+            columns.add(name);
+        }
+        for (String name : customProperties) {
+            columns.add(name);
+        }
+        this.selectList = String.join(", ", columns);
+
+        // Scalar columns only; the class name comes from each object's class identity, not a ClassDescription
+        this.propertyFilter = new PropertyFilter();
+        propertyFilter.addIncludeProperty(0, null, null, String.join(" ", columns), null);
+    }
+
+    public static SearchProjection of(String[] propertiesToInclude) {
+        if (propertiesToInclude == null || propertiesToInclude.length == 0) {
+            return null;
+        }
+
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : propertiesToInclude) {
+            String trimmed = name == null ? "" : name.trim();
+            if (!PROPERTY_NAME.matcher(trimmed).matches()) {
+                throw new IllegalArgumentException("Invalid property name: " + name);
+            }
+            names.add(trimmed);
+        }
+        return new SearchProjection(names.toArray(new String[0]));
+    }
+
+    public String[] getCustomProperties() {
+        return customProperties;
+    }
+
+    public PropertyFilter getPropertyFilter() {
+        return propertyFilter;
+    }
+
+    public String applySelectList(String sql) {
+        // Only a wildcard select list is narrowed; an explicit one is the caller's choice
+        Matcher matcher = SELECT_ALL.matcher(sql);
+        if (!matcher.find()) {
+            return sql;
+        }
+        return matcher.group(1) + selectList + matcher.group(2) + sql.substring(matcher.end());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.property.PropertyFilter;
+import com.filenet.api.query.SearchSQL;
+
+import java.util.List;
+import java.util.Map;
+
+public class SearchQueryPlan {
+
+    private final String sql;
+    private final String className;
+    private final SearchProjection projection;
+    private final List<SortKey> sortKeys;
+
+    SearchQueryPlan(String sql, String className, SearchProjection projection) {
+        this(sql, className, projection, List.of());
+    }
+
+    SearchQueryPlan(String sql, String className, SearchProjection projection, List<SortKey> sortKeys) {
+        this.sql = sql;
+        this.className = className;
+        this.projection = projection;
+        this.sortKeys = List.copyOf(sortKeys);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public SearchProjection getProjection() {
+        return projection;
+    }
+
+    public List<SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    public PropertyFilter getPropertyFilter() {
+        return projection != null ? projection.getPropertyFilter() : null;
+    }
+
+    public SearchSQL bind(Map<String, Object> parameters) {
+        // The template text is final; only values travel per request
+        SearchSQL searchSQL = new SearchSQL(sql);
+        if (parameters != null) {
+            for (Map.Entry<String, Object> param : parameters.entrySet()) {
+                searchSQL.setParameter(param.getKey(), param.getValue());
+            }
+        }
+        return searchSQL;
+    }
+
+    public static class SortKey {
+
+        private final String property;
+        private final boolean ascending;
+
+        SortKey(String property, boolean ascending) {
+            this.property = property;
+            this.ascending = ascending;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public boolean isAscending() {
+            return ascending;
+        }
+    }
+}
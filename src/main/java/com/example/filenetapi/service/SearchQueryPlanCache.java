@@ -0,0 +1,143 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.CacheStatsDTO;
+import com.example.filenetapi.dto.SearchRequestDTO;
+import com.filenet.api.core.ObjectStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Component
+public class SearchQueryPlanCache {
+
+    private static final int MAX_PLANS = 1024;
+
+    private static final Pattern FROM_CLASS = Pattern.compile(
+            "\\bFROM\\s+\\[?([A-Za-z_][A-Za-z0-9_]*)\\]?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_TERM = Pattern.compile(
+            "(?:([A-Za-z_][A-Za-z0-9_]*)\\.)?([A-Za-z_][A-Za-z0-9_]*)(?:\\s+(ASC|DESC))?", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private ClassMetadataCache classMetadataCache;
+
+    private final Map<String, SearchQueryPlan> plans = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SearchQueryPlan planFor(ObjectStore objectStore, SearchRequestDTO searchRequest) {
+        return planFor(objectStore, searchRequest.getSqlQuery(), searchRequest.getOrderBy(),
+                searchRequest.isAscending(), searchRequest.getPropertiesToInclude());
+    }
+
+    public SearchQueryPlan planFor(ObjectStore objectStore, String sqlQuery, String orderBy, boolean ascending,
+                                   String[] propertiesToInclude) {
+        if (sqlQuery == null || sqlQuery.isBlank()) {
+            throw new IllegalArgumentException("A SQL query is required");
+        }
+
+        String sql = normalize(sqlQuery);
+        String sort = orderBy != null ? orderBy.trim() : "";
+        String key = objectStore.get_SymbolicName() + "\n" + sql + "\n" + sort + "\n" + ascending + "\n"
+                + (propertiesToInclude != null ? String.join(",", propertiesToInclude) : "");
+        SearchQueryPlan plan = plans.get(key);
+        if (plan != null) {
+            hits.incrementAndGet();
+            return plan;
+        }
+        misses.incrementAndGet();
+
+        // Compiled outside the map: validating a sort may cost a class metadata round-trip
+        plan = compile(objectStore, sql, sort, ascending, propertiesToInclude);
+        if (plans.size() >= MAX_PLANS) {
+            evictions.addAndGet(plans.size());
+            plans.clear();
+        }
+        SearchQueryPlan existing = plans.putIfAbsent(key, plan);
+        return existing != null ? existing : plan;
+    }
+
+    public CacheStatsDTO getStats() {
+        return CacheStatsDTO.builder()
+                .size(plans.size())
+                .maxSize(MAX_PLANS)
+                .hits(hits.get())
+                .misses(misses.get())
+                .evictions(evictions.get())
+                .build();
+    }
+
+    private SearchQueryPlan compile(ObjectStore objectStore, String sql, String orderBy, boolean ascending,
+                                    String[] propertiesToInclude) {
+        SearchProjection projection = SearchProjection.of(propertiesToInclude);
+        Matcher from = FROM_CLASS.matcher(sql);
+        String className = from.find() ? from.group(1) : null;
+
+        StringBuilder sqlBuilder = new StringBuilder(projection != null ? projection.applySelectList(sql) : sql);
+        List<SearchQueryPlan.SortKey> sortKeys = new ArrayList<>();
+        if (!orderBy.isEmpty()) {
+            sqlBuilder.append(" ORDER BY ").append(orderByClause(objectStore, className, orderBy, ascending, sortKeys));
+        }
+        return new SearchQueryPlan(sqlBuilder.toString(), className, projection, sortKeys);
+    }
+
+    private String orderByClause(ObjectStore objectStore, String className, String orderBy, boolean ascending,
+                                 List<SearchQueryPlan.SortKey> sortKeys) {
+        ClassMetadata metadata = className != null ? classMetadataCache.get(objectStore, className) : null;
+
+        // Rebuilt from validated identifiers only, so nothing from the request reaches the SQL verbatim
+        String[] terms = orderBy.split(",");
+        List<String> columns = new ArrayList<>(terms.length);
+        for (int i = 0; i < terms.length; i++) {
+            Matcher term = ORDER_TERM.matcher(terms[i].trim());
+            if (!term.matches()) {
+                throw new IllegalArgumentException("Invalid ORDER BY term: " + terms[i].trim());
+            }
+            String property = term.group(2);
+            if (metadata != null && !metadata.hasProperty(property)) {
+                throw new IllegalArgumentException("Class " + metadata.getSymbolicName()
+                        + " has no property " + property + " to order by");
+            }
+
+            String direction = term.group(3);
+            if (direction == null && i == terms.length - 1) {
+                direction = ascending ? "ASC" : "DESC";
+            }
+            columns.add((term.group(1) != null ? term.group(1) + "." : "") + property
+                    + (direction != null ? " " + direction.toUpperCase() : ""));
+            sortKeys.add(new SearchQueryPlan.SortKey(property, !"DESC".equalsIgnoreCase(direction)));
+        }
+        return String.join(", ", columns);
+    }
+
+    static String normalize(String sql) {
+        // Collapse whitespace runs outside string literals so formatting variants share one plan
+        StringBuilder normalized = new StringBuilder(sql.length());
+        boolean inLiteral = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (!inLiteral && Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.CacheStatsDTO;
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.filenet.api.core.ObjectStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class SearchResultCache {
+
+    // Rough per-object overheads; the bound only needs to track result size, not match it exactly
+    private static final int DTO_OVERHEAD_BYTES = 160;
+    private static final int PROPERTY_OVERHEAD_BYTES = 64;
+
+    @Autowired
+    private ClassMetadataCache classMetadataCache;
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long maxWeightBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<List<DocumentPropertiesDTO>>> inFlight = new ConcurrentHashMap<>();
+    private long weightBytes;
+
+    // Bumped on every invalidation so a fetch that raced with a write never repopulates stale rows
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public SearchResultCache(@Value("${filenet.cache.search.enabled:true}") boolean enabled,
+                             @Value("${filenet.cache.search.ttl:PT10S}") Duration ttl,
+                             @Value("${filenet.cache.search.max-bytes:67108864}") long maxWeightBytes) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    public List<DocumentPropertiesDTO> get(Key key, Loader loader) throws Exception {
+        if (!enabled) {
+            return loader.load();
+        }
+
+        List<DocumentPropertiesDTO> cached = lookup(key.value);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Single-flight: identical concurrent misses wait for the first caller's fetch
+        CompletableFuture<List<DocumentPropertiesDTO>> fetch = new CompletableFuture<>();
+        CompletableFuture<List<DocumentPropertiesDTO>> leader = inFlight.putIfAbsent(key.value, fetch);
+        if (leader != null) {
+            coalesced.incrementAndGet();
+            try {
+                return leader.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+
+        long startGeneration = generation.get();
+        try {
+            List<DocumentPropertiesDTO> results = List.copyOf(loader.load());
+            store(key, results, startGeneration);
+            fetch.complete(results);
+            return results;
+        } catch (Exception e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key.value, fetch);
+        }
+    }
+
+    public void invalidateClass(ObjectStore objectStore, String className) {
+        Set<String> affected = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        try {
+            // Queries on a superclass include its subclasses, so walk up to the root
+            for (String name = className; name != null; name = classMetadataCache.get(objectStore, name).getSuperclassName()) {
+                affected.add(name);
+            }
+        } catch (RuntimeException e) {
+            invalidateAll();
+            return;
+        }
+
+        String store = objectStore.get_SymbolicName();
+        generation.incrementAndGet();
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (Objects.equals(store, entry.objectStore)
+                        && (entry.className == null || affected.contains(entry.className))) {
+                    remove(iterator, entry);
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+            weightBytes = 0;
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        synchronized (entries) {
+            return CacheStatsDTO.builder()
+                    .size(entries.size())
+                    .hits(hits.get())
+                    .misses(misses.get())
+                    .coalesced(coalesced.get())
+                    .evictions(evictions.get())
+                    .expirations(expirations.get())
+                    .invalidations(invalidations.get())
+                    .weightBytes(weightBytes)
+                    .maxWeightBytes(maxWeightBytes)
+                    .build();
+        }
+    }
+
+    private List<DocumentPropertiesDTO> lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (System.nanoTime() - entry.cachedAtNanos > ttlNanos) {
+                entries.remove(key);
+                weightBytes -= entry.weightBytes;
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.results;
+        }
+    }
+
+    private void store(Key key, List<DocumentPropertiesDTO> results, long startGeneration) {
+        long weight = key.value.length() * 2L;
+        for (DocumentPropertiesDTO dto : results) {
+            weight += weigh(dto);
+        }
+        if (weight > maxWeightBytes) {
+            return;
+        }
+
+        Entry entry = new Entry(key.objectStore, key.className, results, weight, System.nanoTime());
+        synchronized (entries) {
+            if (generation.get() != startGeneration) {
+                return;
+            }
+            Entry previous = entries.put(key.value, entry);
+            if (previous != null) {
+                weightBytes -= previous.weightBytes;
+            }
+            weightBytes += weight;
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (weightBytes > maxWeightBytes && eldest.hasNext()) {
+                remove(eldest, eldest.next());
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void remove(Iterator<Entry> iterator, Entry entry) {
+        iterator.remove();
+        weightBytes -= entry.weightBytes;
+    }
+
+    static long weigh(DocumentPropertiesDTO dto) {
+        long weight = DTO_OVERHEAD_BYTES;
+        for (String value : new String[]{dto.getId(), dto.getName(), dto.getDocumentClass(), dto.getMimeType(),
+                dto.getCreator(), dto.getLastModifier()}) {
+            weight += value != null ? value.length() * 2L : 0;
+        }
+        if (dto.getCustomProperties() != null) {
+            for (Map.Entry<String, Object> property : dto.getCustomProperties().entrySet()) {
+                weight += PROPERTY_OVERHEAD_BYTES + property.getKey().length() * 2L;
+                Object value = property.getValue();
+                weight += value instanceof String ? ((String) value).length() * 2L : 16;
+            }
+        }
+        return weight;
+    }
+
+    public interface Loader {
+        List<DocumentPropertiesDTO> load() throws Exception;
+    }
+
+    public static class Key {
+
+        private final String objectStore;
+        private final String className;
+        private final String value;
+
+        public Key(String user, String objectStore, SearchQueryPlan queryPlan, Map<String, Object> parameters,
+                   int offset, int pageSize) {
+            this.objectStore = objectStore;
+            this.className = queryPlan.getClassName();
+            // Results are security-trimmed per caller, so the user is part of the key. An explicit select list
+            // is left as-is by the projection, so the projected names are keyed separately from the SQL
+            this.value = user + "\n" + objectStore + "\n" + queryPlan.getSql() + "\n"
+                    + projectionOf(queryPlan) + "\n"
+                    + (parameters != null ? new TreeMap<>(parameters) : "") + "\n" + offset + "\n" + pageSize;
+        }
+
+        private static String projectionOf(SearchQueryPlan queryPlan) {
+            if (queryPlan.getProjection() == null) {
+                return "*";
+            }
+            return String.join(",", new TreeSet<>(Arrays.asList(queryPlan.getProjection().getCustomProperties())));
+        }
+    }
+
+    private static class Entry {
+
+        private final String objectStore;
+        private final String className;
+        private final List<DocumentPropertiesDTO> results;
+        private final long weightBytes;
+        private final long cachedAtNanos;
+
+        private Entry(String objectStore, String className, List<DocumentPropertiesDTO> results,
+                      long weightBytes, long cachedAtNanos) {
+            this.objectStore = objectStore;
+            this.className = className;
+            this.results = results;
+            this.weightBytes = weightBytes;
+            this.cachedAtNanos = cachedAtNanos;
+        }
+    }
+}
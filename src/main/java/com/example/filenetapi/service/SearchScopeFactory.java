@@ -0,0 +1,13 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.core.ObjectStore;
+import com.filenet.api.query.SearchScope;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SearchScopeFactory {
+
+    public SearchScope create(ObjectStore objectStore) {
+        return new SearchScope(objectStore);
+    }
+}
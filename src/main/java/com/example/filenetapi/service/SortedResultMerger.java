@@ -0,0 +1,68 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.filenet.api.constants.PropertyNames;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+final class SortedResultMerger {
+
+    private SortedResultMerger() {
+    }
+
+    static Comparator<DocumentPropertiesDTO> comparatorFor(List<SearchQueryPlan.SortKey> sortKeys) {
+        Comparator<DocumentPropertiesDTO> comparator = (a, b) -> 0;
+        for (SearchQueryPlan.SortKey sortKey : sortKeys) {
+            Comparator<DocumentPropertiesDTO> byKey = (a, b) -> compareValues(
+                    sortValue(a, sortKey.getProperty()), sortValue(b, sortKey.getProperty()));
+            comparator = comparator.thenComparing(sortKey.isAscending() ? byKey : byKey.reversed());
+        }
+        return comparator;
+    }
+
+    static Object sortValue(DocumentPropertiesDTO dto, String property) {
+        if (PropertyNames.ID.equalsIgnoreCase(property)) {
+            return dto.getId();
+        } else if (PropertyNames.NAME.equalsIgnoreCase(property)) {
+            return dto.getName();
+        } else if (PropertyNames.MIME_TYPE.equalsIgnoreCase(property)) {
+            return dto.getMimeType();
+        } else if (PropertyNames.DATE_CREATED.equalsIgnoreCase(property)) {
+            return dto.getDateCreated();
+        } else if (PropertyNames.DATE_LAST_MODIFIED.equalsIgnoreCase(property)) {
+            return dto.getDateLastModified();
+        } else if (PropertyNames.CREATOR.equalsIgnoreCase(property)) {
+            return dto.getCreator();
+        } else if (PropertyNames.LAST_MODIFIER.equalsIgnoreCase(property)) {
+            return dto.getLastModifier();
+        }
+
+        Map<String, Object> custom = dto.getCustomProperties();
+        if (custom == null) {
+            return null;
+        }
+        if (custom.containsKey(property)) {
+            return custom.get(property);
+        }
+        for (Map.Entry<String, Object> entry : custom.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(property)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        // Nulls sort last, as the CE does for ascending order
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        if (a instanceof Comparable && a.getClass().isInstance(b)) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+}
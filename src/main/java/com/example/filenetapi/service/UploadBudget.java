@@ -0,0 +1,80 @@
+package com.example.filenetapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class UploadBudget {
+
+    @Value("${filenet.upload.max-in-flight-bytes:536870912}")
+    private long maxInFlightBytes;
+
+    @Value("${filenet.upload.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+
+    private final ThreadLocal<Reservation> admitted = new ThreadLocal<>();
+
+    public Reservation admit(long bytes) {
+        // Counts a whole request body before it is parsed; reservations made within it on this thread are covered
+        Reservation reservation = reserve(bytes);
+        admitted.set(reservation);
+        return reservation;
+    }
+
+    public Reservation reserve(long bytes) {
+        Reservation request = admitted.get();
+        if (request != null && bytes <= request.bytes) {
+            return new Reservation(0);
+        }
+
+        // A single upload larger than the whole budget can never be admitted
+        if (bytes > maxInFlightBytes) {
+            throw new MaxUploadSizeExceededException(maxInFlightBytes);
+        }
+
+        while (true) {
+            long current = inFlightBytes.get();
+            if (current + bytes > maxInFlightBytes) {
+                throw new CapacityExceededException(
+                        "Upload capacity exhausted (" + current + " bytes in flight), retry later", retryAfterSeconds);
+            }
+            if (inFlightBytes.compareAndSet(current, current + bytes)) {
+                return new Reservation(bytes);
+            }
+        }
+    }
+
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    public class Reservation implements AutoCloseable {
+
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                inFlightBytes.addAndGet(-bytes);
+                if (admitted.get() == this) {
+                    admitted.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.UploadChunkDTO;
+import com.example.filenetapi.dto.UploadSessionDTO;
+import com.example.filenetapi.dto.UploadSessionRequestDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class UploadSessionManager {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private FileNetSessionManager sessionManager;
+
+    @Autowired
+    private BufferPool bufferPool;
+
+    @Value("${filenet.upload.session.directory:${java.io.tmpdir}/filenet-uploads}")
+    private Path directory;
+
+    @Value("${filenet.upload.session.ttl:PT1H}")
+    private Duration ttl;
+
+    @Value("${filenet.upload.session.max-size:10737418240}")
+    private long maxSize;
+
+    @Value("${filenet.upload.session.max-sessions:100}")
+    private int maxSessions;
+
+    @Value("${filenet.upload.max-spool-bytes:53687091200}")
+    private long maxSpoolBytes;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong spooledBytes = new AtomicLong();
+
+    public UploadSessionDTO create(UploadSessionRequestDTO request) throws IOException {
+        if (request.getDocumentClass() == null || request.getDocumentClass().isEmpty()) {
+            throw new IllegalArgumentException("documentClass is required");
+        }
+        if (request.getTotalSize() <= 0) {
+            throw new IllegalArgumentException("totalSize must be positive");
+        }
+        if (request.getTotalSize() > maxSize) {
+            throw new MaxUploadSizeExceededException(maxSize);
+        }
+        if (sessions.size() >= maxSessions) {
+            evictExpiredSessions();
+            if (sessions.size() >= maxSessions) {
+                throw new CapacityExceededException("Too many open upload sessions, retry later", 60);
+            }
+        }
+        // Declared sizes are reserved up front: every spool file grows to its full size before it is committed
+        if (!reserveSpool(request.getTotalSize())) {
+            evictExpiredSessions();
+            if (!reserveSpool(request.getTotalSize())) {
+                throw new CapacityExceededException("Upload spool space exhausted, retry later", 60);
+            }
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path file = directory.resolve(id + ".part");
+        FileChannel channel;
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            spooledBytes.addAndGet(-request.getTotalSize());
+            throw e;
+        }
+        UploadSession session = new UploadSession(id, currentUsername(), request, file, channel);
+        session.touch(ttl);
+        sessions.put(id, session);
+        return session.toDTO();
+    }
+
+    public UploadSessionDTO get(String sessionId) {
+        return find(sessionId).toDTO();
+    }
+
+    public UploadChunkDTO writeChunk(String sessionId, long offset, long length, InputStream content,
+                                     String expectedSha256) throws IOException {
+        UploadSession session = find(sessionId);
+        if (offset < 0 || length <= 0 || offset + length > session.request.getTotalSize()) {
+            throw new IllegalArgumentException("Chunk [" + offset + ", " + (offset + length)
+                    + ") is outside the declared size " + session.request.getTotalSize());
+        }
+
+        // Shared lock: chunks for different ranges are written concurrently; commit waits for all of them
+        session.lock.readLock().lock();
+        byte[] buffer = bufferPool.acquire();
+        try {
+            if (session.committed) {
+                throw new IllegalStateException("Upload session " + sessionId + " is already committed");
+            }
+
+            // Accepted bytes are never overwritten; a repeat of an accepted chunk is only checked against it
+            UploadChunkDTO accepted = session.claim(offset, length);
+            if (accepted != null) {
+                String sha256 = copy(content, length, buffer, null, offset);
+                if (!accepted.getSha256().equalsIgnoreCase(sha256)) {
+                    throw new IllegalStateException("Chunk at offset " + offset + " was already received with different content");
+                }
+                session.touch(ttl);
+                return accepted;
+            }
+
+            UploadChunkDTO chunk = null;
+            try {
+                String sha256 = copy(content, length, buffer, session.channel, offset);
+                if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha256)) {
+                    throw new IllegalArgumentException("Chunk checksum mismatch: expected " + expectedSha256 + " but got " + sha256);
+                }
+                chunk = UploadChunkDTO.builder().offset(offset).length(length).sha256(sha256).build();
+            } finally {
+                session.release(offset, chunk);
+            }
+            session.touch(ttl);
+            return chunk;
+        } finally {
+            bufferPool.release(buffer);
+            session.lock.readLock().unlock();
+        }
+    }
+
+    public String commit(String sessionId) throws Exception {
+        UploadSession session = find(sessionId);
+        session.lock.writeLock().lock();
+        try {
+            if (session.committed) {
+                throw new IllegalStateException("Upload session " + sessionId + " is already committed");
+            }
+            long missingAt = firstGap(session);
+            if (missingAt >= 0) {
+                throw new IllegalStateException("Upload session " + sessionId + " is missing content at offset " + missingAt);
+            }
+
+            session.channel.force(false);
+            UploadSessionRequestDTO request = session.request;
+            String documentId = documentService.createDocumentFromSpool(session.file, request.getTotalSize(),
+                    request.getDocumentClass(), request.getMimeType(), request.getFileName());
+            session.committed = true;
+            discard(session);
+            return documentId;
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+    }
+
+    public void abort(String sessionId) {
+        UploadSession session = find(sessionId);
+        session.lock.writeLock().lock();
+        try {
+            discard(session);
+        } finally {
+            session.lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${filenet.upload.session.eviction-interval:PT5M}")
+    public void evictExpiredSessions() {
+        for (UploadSession session : sessions.values()) {
+            // A session being written or committed is not idle, whatever its timestamp says
+            if (session.isExpired() && session.lock.writeLock().tryLock()) {
+                try {
+                    discard(session);
+                } finally {
+                    session.lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private UploadSession find(String sessionId) {
+        UploadSession session = sessions.get(sessionId);
+        if (session == null || session.isExpired() || !Objects.equals(session.owner, currentUsername())) {
+            throw new IllegalArgumentException("Unknown or expired upload session");
+        }
+        return session;
+    }
+
+    private boolean reserveSpool(long bytes) {
+        while (true) {
+            long current = spooledBytes.get();
+            if (current + bytes > maxSpoolBytes) {
+                return false;
+            }
+            if (spooledBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private void discard(UploadSession session) {
+        if (sessions.remove(session.id, session)) {
+            spooledBytes.addAndGet(-session.request.getTotalSize());
+        }
+        try {
+            session.channel.close();
+            Files.deleteIfExists(session.file);
+        } catch (IOException ignored) {
+            // Leftover spool files are harmless and cleared with the temp directory
+        }
+    }
+
+    private static String copy(InputStream content, long length, byte[] buffer, FileChannel channel,
+                               long position) throws IOException {
+        MessageDigest digest = sha256();
+        long remaining = length;
+        while (remaining > 0) {
+            int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            digest.update(buffer, 0, read);
+            if (channel != null) {
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+            }
+            remaining -= read;
+        }
+        if (remaining > 0) {
+            throw new IllegalArgumentException("Chunk ended " + remaining + " bytes short of its declared length");
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static long firstGap(UploadSession session) {
+        long covered = 0;
+        for (UploadChunkDTO chunk : session.chunks.values()) {
+            if (chunk.getOffset() > covered) {
+                return covered;
+            }
+            covered = Math.max(covered, chunk.getOffset() + chunk.getLength());
+        }
+        return covered < session.request.getTotalSize() ? covered : -1;
+    }
+
+    private String currentUsername() {
+        FileNetSession session = sessionManager.currentSession();
+        return session != null ? session.getUsername() : null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class UploadSession {
+        private final String id;
+        private final String owner;
+        private final UploadSessionRequestDTO request;
+        private final Path file;
+        private final FileChannel channel;
+        private final ConcurrentSkipListMap<Long, UploadChunkDTO> chunks = new ConcurrentSkipListMap<>();
+        // Ranges being written right now, offset to end; guarded by the session monitor together with chunks
+        private final NavigableMap<Long, Long> writing = new TreeMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean committed;
+        private volatile long expiresAtMillis;
+
+        private UploadSession(String id, String owner, UploadSessionRequestDTO request, Path file, FileChannel channel) {
+            this.id = id;
+            this.owner = owner;
+            this.request = request;
+            this.file = file;
+            this.channel = channel;
+        }
+
+        private synchronized UploadChunkDTO claim(long offset, long length) {
+            long end = offset + length;
+            UploadChunkDTO same = chunks.get(offset);
+            if (same != null && same.getLength() == length) {
+                return same;
+            }
+            Map.Entry<Long, UploadChunkDTO> before = chunks.lowerEntry(end);
+            if (before != null && before.getValue().getOffset() + before.getValue().getLength() > offset) {
+                throw new IllegalStateException("Chunk [" + offset + ", " + end + ") overlaps content already received");
+            }
+            Map.Entry<Long, Long> pending = writing.lowerEntry(end);
+            if (pending != null && pending.getValue() > offset) {
+                throw new IllegalStateException("Chunk [" + offset + ", " + end + ") overlaps a chunk still being written");
+            }
+            writing.put(offset, end);
+            return null;
+        }
+
+        private synchronized void release(long offset, UploadChunkDTO chunk) {
+            writing.remove(offset);
+            if (chunk != null) {
+                chunks.put(offset, chunk);
+            }
+        }
+
+        private void touch(Duration ttl) {
+            expiresAtMillis = System.currentTimeMillis() + ttl.toMillis();
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAtMillis;
+        }
+
+        private UploadSessionDTO toDTO() {
+            List<UploadChunkDTO> received = new ArrayList<>(chunks.values());
+            return UploadSessionDTO.builder()
+                    .sessionId(id)
+                    .documentClass(request.getDocumentClass())
+                    .fileName(request.getFileName())
+                    .mimeType(request.getMimeType())
+                    .totalSize(request.getTotalSize())
+                    .receivedBytes(received.stream().mapToLong(UploadChunkDTO::getLength).sum())
+                    .chunks(received)
+                    .expiresAt(new Date(expiresAtMillis))
+                    .build();
+        }
+    }
+}
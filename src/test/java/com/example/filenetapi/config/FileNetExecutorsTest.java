@@ -0,0 +1,45 @@
+package com.example.filenetapi.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FileNetExecutorsTest {
+
+    @Test
+    void virtualThreadTasksRunUnderSubmittersSession() throws Exception {
+        FileNetSessionManager sessionManager = mock(FileNetSessionManager.class);
+        FileNetSession session = mock(FileNetSession.class);
+        FileNetSessionManager.Binding binding = mock(FileNetSessionManager.Binding.class);
+        when(sessionManager.currentSession()).thenReturn(session);
+        when(sessionManager.bind(session)).thenReturn(binding);
+
+        AsyncTaskExecutor executor = FileNetExecutors.create("test-", 2, true, sessionManager);
+        Future<Boolean> virtual = executor.submit(() -> Thread.currentThread().isVirtual());
+
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+        verify(sessionManager).bind(session);
+        verify(binding, timeout(5000)).close();
+    }
+
+    @Test
+    void platformPoolTasksRunUnderSubmittersSession() throws Exception {
+        FileNetSessionManager sessionManager = mock(FileNetSessionManager.class);
+        FileNetSession session = mock(FileNetSession.class);
+        FileNetSessionManager.Binding binding = mock(FileNetSessionManager.Binding.class);
+        when(sessionManager.currentSession()).thenReturn(session);
+        when(sessionManager.bind(session)).thenReturn(binding);
+
+        AsyncTaskExecutor executor = FileNetExecutors.create("test-", 2, false, sessionManager);
+        Future<Boolean> virtual = executor.submit(() -> Thread.currentThread().isVirtual());
+
+        assertFalse(virtual.get(5, TimeUnit.SECONDS));
+        verify(sessionManager).bind(session);
+        verify(binding, timeout(5000)).close();
+    }
+}
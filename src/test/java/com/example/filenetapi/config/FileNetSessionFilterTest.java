@@ -0,0 +1,95 @@
+package com.example.filenetapi.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class FileNetSessionFilterTest {
+
+    private FileNetSessionManager sessionManager;
+    private FileNetSessionFilter filter;
+    private FilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        sessionManager = mock(FileNetSessionManager.class);
+        when(sessionManager.bind(any())).thenReturn(() -> { });
+        filter = new FileNetSessionFilter();
+        ReflectionTestUtils.setField(filter, "sessionManager", sessionManager);
+        ReflectionTestUtils.setField(filter, "passThroughCredentials", true);
+        chain = mock(FilterChain.class);
+    }
+
+    @Test
+    void passThroughBindsTheCallersSession() throws Exception {
+        FileNetSession session = mock(FileNetSession.class);
+        when(sessionManager.acquire("alice", "secret:1")).thenReturn(session);
+
+        MockHttpServletResponse response = perform(basic("alice:secret:1"));
+
+        assertEquals(200, response.getStatus());
+        verify(sessionManager).bind(session);
+        verify(chain).doFilter(any(), any());
+    }
+
+    @Test
+    void passThroughRejectsMissingOrUnusableCredentials() throws Exception {
+        for (String authorization : new String[]{null, "Bearer token", basic("no-separator"), "Basic %%%"}) {
+            MockHttpServletResponse response = perform(authorization);
+
+            assertEquals(401, response.getStatus(), String.valueOf(authorization));
+            assertEquals("Basic credentials are required", response.getErrorMessage());
+            assertNotNull(response.getHeader(HttpHeaders.WWW_AUTHENTICATE));
+        }
+        verify(sessionManager, never()).serviceSession();
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void passThroughHidesLoginFailureDetails() throws Exception {
+        when(sessionManager.acquire(any(), any())).thenThrow(new IllegalStateException("LDAP host ldap01 refused"));
+
+        MockHttpServletResponse response = perform(basic("alice:wrong"));
+
+        assertEquals(401, response.getStatus());
+        assertEquals("FileNet rejected the supplied credentials", response.getErrorMessage());
+        verify(sessionManager, never()).serviceSession();
+    }
+
+    @Test
+    void serviceAccountModeIgnoresAuthorization() throws Exception {
+        ReflectionTestUtils.setField(filter, "passThroughCredentials", false);
+        FileNetSession service = mock(FileNetSession.class);
+        when(sessionManager.serviceSession()).thenReturn(service);
+
+        perform(basic("alice:secret"));
+
+        verify(sessionManager).bind(service);
+        verify(sessionManager, never()).acquire(any(), any());
+    }
+
+    private MockHttpServletResponse perform(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents/1");
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static String basic(String credentials) {
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.filenetapi.config;
+
+import com.filenet.api.core.Connection;
+import com.filenet.api.core.Domain;
+import com.filenet.api.core.Factory;
+import com.filenet.api.core.ObjectStore;
+import com.filenet.api.util.UserContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.security.auth.Subject;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileNetSessionManagerTest {
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Domain domain;
+
+    @Mock
+    private ObjectStore objectStore;
+
+    @Mock
+    private UserContext userContext;
+
+    @InjectMocks
+    private FileNetSessionManager sessionManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sessionManager, "username", "service-user");
+        ReflectionTestUtils.setField(sessionManager, "password", "service-password");
+        ReflectionTestUtils.setField(sessionManager, "objectStoreName", "OS1");
+        ReflectionTestUtils.setField(sessionManager, "idleTimeout", Duration.ZERO);
+        lenient().when(objectStore.get_SymbolicName()).thenReturn("OS1");
+    }
+
+    @Test
+    void acquire_CachesSessionPerCredential() {
+        try (MockedStatic<UserContext> userContextMock = mockStatic(UserContext.class);
+             MockedStatic<Factory.Domain> domainFactory = mockStatic(Factory.Domain.class);
+             MockedStatic<Factory.ObjectStore> objectStoreFactory = mockStatic(Factory.ObjectStore.class)) {
+
+            userContextMock.when(UserContext::get).thenReturn(userContext);
+            userContextMock.when(() -> UserContext.createSubject(any(), any(), any(), any())).thenReturn(new Subject());
+            domainFactory.when(() -> Factory.Domain.fetchInstance(any(), any(), any())).thenReturn(domain);
+            objectStoreFactory.when(() -> Factory.ObjectStore.fetchInstance(any(), eq("OS1"), any())).thenReturn(objectStore);
+
+            FileNetSession first = sessionManager.acquire("alice", "secret");
+            FileNetSession second = sessionManager.acquire("alice", "secret");
+            FileNetSession other = sessionManager.acquire("bob", "secret");
+
+            assertSame(first, second);
+            assertNotSame(first, other);
+            assertEquals(1, sessionManager.getStats().getHits());
+            assertEquals(2, sessionManager.getStats().getMisses());
+            userContextMock.verify(() -> UserContext.createSubject(any(), any(), any(), any()), times(2));
+        }
+    }
+
+    @Test
+    void bind_PushesAndPopsSubject() {
+        try (MockedStatic<UserContext> userContextMock = mockStatic(UserContext.class);
+             MockedStatic<Factory.Domain> domainFactory = mockStatic(Factory.Domain.class);
+             MockedStatic<Factory.ObjectStore> objectStoreFactory = mockStatic(Factory.ObjectStore.class)) {
+
+            Subject subject = new Subject();
+            userContextMock.when(UserContext::get).thenReturn(userContext);
+            userContextMock.when(() -> UserContext.createSubject(any(), any(), any(), any())).thenReturn(subject);
+            domainFactory.when(() -> Factory.Domain.fetchInstance(any(), any(), any())).thenReturn(domain);
+            objectStoreFactory.when(() -> Factory.ObjectStore.fetchInstance(any(), eq("OS1"), any())).thenReturn(objectStore);
+
+            FileNetSession session = sessionManager.serviceSession();
+            try (FileNetSessionManager.Binding binding = sessionManager.bind(session)) {
+                assertSame(session, sessionManager.currentSession());
+                assertSame(objectStore, sessionManager.currentObjectStore());
+            }
+
+            assertNull(sessionManager.currentSession());
+            verify(userContext, times(2)).pushSubject(subject);
+            verify(userContext, times(2)).popSubject();
+        }
+    }
+
+    @Test
+    void evictIdleSessions_SkipsSessionsInUse() {
+        try (MockedStatic<UserContext> userContextMock = mockStatic(UserContext.class);
+             MockedStatic<Factory.Domain> domainFactory = mockStatic(Factory.Domain.class);
+             MockedStatic<Factory.ObjectStore> objectStoreFactory = mockStatic(Factory.ObjectStore.class)) {
+
+            userContextMock.when(UserContext::get).thenReturn(userContext);
+            userContextMock.when(() -> UserContext.createSubject(any(), any(), any(), any())).thenReturn(new Subject());
+            domainFactory.when(() -> Factory.Domain.fetchInstance(any(), any(), any())).thenReturn(domain);
+            objectStoreFactory.when(() -> Factory.ObjectStore.fetchInstance(any(), eq("OS1"), any())).thenReturn(objectStore);
+
+            FileNetSession session = sessionManager.serviceSession();
+            try (FileNetSessionManager.Binding binding = sessionManager.bind(session)) {
+                sessionManager.evictIdleSessions();
+                assertEquals(1, sessionManager.getStats().getSize());
+            }
+
+            sessionManager.evictIdleSessions();
+            assertEquals(0, sessionManager.getStats().getSize());
+            assertEquals(1, sessionManager.getStats().getEvictions());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.filenetapi.config;
+
+import com.example.filenetapi.service.UploadBudget;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UploadBudgetFilterTest {
+
+    private UploadBudget uploadBudget;
+    private UploadBudgetFilter filter;
+    private FilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        uploadBudget = new UploadBudget();
+        ReflectionTestUtils.setField(uploadBudget, "maxInFlightBytes", 100L);
+        ReflectionTestUtils.setField(uploadBudget, "retryAfterSeconds", 5L);
+        filter = new UploadBudgetFilter();
+        ReflectionTestUtils.setField(filter, "uploadBudget", uploadBudget);
+        chain = mock(FilterChain.class);
+    }
+
+    @Test
+    void admitsTheBodyBeforeItIsParsedAndCoversReservationsWithinIt() throws Exception {
+        AtomicLong inFlight = new AtomicLong();
+        doAnswer(invocation -> {
+            // Parts are smaller than the multipart body, so the service's own reservation adds nothing
+            try (UploadBudget.Reservation part = uploadBudget.reserve(40)) {
+                inFlight.set(uploadBudget.getInFlightBytes());
+            }
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        MockHttpServletResponse response = perform(multipart(60));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(60, inFlight.get());
+        assertEquals(0, uploadBudget.getInFlightBytes());
+        try (UploadBudget.Reservation outside = uploadBudget.reserve(40)) {
+            assertEquals(40, uploadBudget.getInFlightBytes());
+        }
+    }
+
+    @Test
+    void batchChunksReserveNothingBeyondTheAdmittedBody() throws Exception {
+        doAnswer(invocation -> {
+            // Each chunk of a batch upload reserves its files' bytes in turn
+            for (int chunk = 0; chunk < 3; chunk++) {
+                try (UploadBudget.Reservation reservation = uploadBudget.reserve(30)) {
+                    assertEquals(90, uploadBudget.getInFlightBytes());
+                }
+            }
+            return null;
+        }).when(chain).doFilter(any(), any());
+        MockHttpServletRequest batch = multipart(90);
+        batch.setRequestURI("/api/documents/batch");
+
+        assertEquals(200, perform(batch).getStatus());
+        assertEquals(0, uploadBudget.getInFlightBytes());
+    }
+
+    @Test
+    void rejectsBodiesTheBudgetCannotAdmit() throws Exception {
+        assertEquals(413, perform(multipart(101)).getStatus());
+
+        try (UploadBudget.Reservation held = uploadBudget.reserve(50)) {
+            MockHttpServletResponse response = perform(multipart(60));
+
+            assertEquals(503, response.getStatus());
+            assertEquals("5", response.getHeader(HttpHeaders.RETRY_AFTER));
+        }
+        verifyNoInteractions(chain);
+    }
+
+    @Test
+    void leavesChunkedBodiesToTheReservationMadeOnceParsed() throws Exception {
+        MockHttpServletRequest chunked = multipart(0);
+        chunked.setContent(null);
+        doAnswer(invocation -> {
+            try (UploadBudget.Reservation parts = uploadBudget.reserve(40)) {
+                assertEquals(40, uploadBudget.getInFlightBytes());
+            }
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        assertEquals(200, perform(chunked).getStatus());
+        verify(chain).doFilter(any(), any());
+    }
+
+    @Test
+    void ignoresRequestsThatAreNotMultipartUploads() throws Exception {
+        MockHttpServletRequest stream = new MockHttpServletRequest("POST", "/api/documents");
+        stream.setContentType("application/octet-stream");
+        MockHttpServletRequest download = new MockHttpServletRequest("GET", "/api/documents/1/content");
+
+        assertEquals(200, perform(stream).getStatus());
+        assertEquals(200, perform(download).getStatus());
+        verify(chain, times(2)).doFilter(any(), any());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest multipart(int length) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/documents/multi-content");
+        request.setContentType("multipart/form-data; boundary=x");
+        request.setContent(new byte[length]);
+        return request;
+    }
+}
@@ -1,10 +1,22 @@
 package com.example.filenetapi.controller;
 
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.BatchItemResultDTO;
+import com.example.filenetapi.dto.BulkRequestDTO;
+import com.example.filenetapi.dto.ChangeDTO;
+import com.example.filenetapi.dto.ChangeFeedCheckpointDTO;
+import com.example.filenetapi.dto.ContentElementDTO;
+import com.example.filenetapi.dto.DocumentCreatedDTO;
 import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.example.filenetapi.dto.SearchPageDTO;
 import com.example.filenetapi.dto.SearchRequestDTO;
+import com.example.filenetapi.service.CapacityExceededException;
+import com.example.filenetapi.service.ChangeQuery;
+import com.example.filenetapi.service.DocumentContent;
 import com.example.filenetapi.service.DocumentService;
+import com.example.filenetapi.service.FileNetMetrics;
+import com.example.filenetapi.service.UploadBudget;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.filenet.api.core.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,11 +26,19 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.*;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,7 +57,13 @@ class DocumentControllerTest {
     private DocumentService documentService;
 
     @MockBean
-    private Document mockDocument;
+    private FileNetSessionManager sessionManager;
+
+    @MockBean
+    private UploadBudget uploadBudget;
+
+    @MockBean
+    private FileNetMetrics metrics;
 
     private MockMultipartFile mockFile;
 
@@ -73,22 +99,256 @@ class DocumentControllerTest {
                 .andExpect(content().string("Test error"));
     }
 
+    @Test
+    void createDocumentStream_Success() throws Exception {
+        when(documentService.createDocument(any(InputStream.class), eq(12L), eq("TestClass"), eq("text/plain"), eq("test.txt")))
+                .thenReturn("test-id");
+
+        mockMvc.perform(post("/api/documents")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("test content".getBytes())
+                .param("documentClass", "TestClass")
+                .param("mimeType", "text/plain")
+                .param("fileName", "test.txt"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("test-id"));
+    }
+
+    @Test
+    void createDocumentStream_CapacityExceeded() throws Exception {
+        when(documentService.createDocument(any(InputStream.class), anyLong(), any(), any(), any()))
+                .thenThrow(new CapacityExceededException("Upload capacity exhausted", 5));
+
+        mockMvc.perform(post("/api/documents")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("test content".getBytes())
+                .param("documentClass", "TestClass"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    void createDocuments_ReturnsPerItemStatus() throws Exception {
+        MockMultipartFile second = new MockMultipartFile("files", "second.txt", MediaType.TEXT_PLAIN_VALUE, "more".getBytes());
+        MockMultipartFile first = new MockMultipartFile("files", "first.txt", MediaType.TEXT_PLAIN_VALUE, "test".getBytes());
+
+        when(documentService.createDocuments(any(), isNull(), eq("TestClass"), eq(10), eq(false)))
+                .thenReturn(List.of(
+                        BatchItemResultDTO.builder().index(0).id("id-1").status(BatchItemResultDTO.Status.CREATED).build(),
+                        BatchItemResultDTO.builder().index(1).status(BatchItemResultDTO.Status.FAILED).error("boom").build()));
+
+        mockMvc.perform(multipart("/api/documents/batch")
+                .file(first)
+                .file(second)
+                .param("documentClass", "TestClass")
+                .param("batchSize", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].error").value("boom"));
+    }
+
+    @Test
+    void createMultiContentDocument_ReturnsOrderedElements() throws Exception {
+        MockMultipartFile page1 = new MockMultipartFile("files", "page1.tif", "image/tiff", "one".getBytes());
+        MockMultipartFile page2 = new MockMultipartFile("files", "page2.tif", "image/tiff", "two".getBytes());
+
+        when(documentService.createDocument(any(MultipartFile[].class), eq("TestClass"), isNull()))
+                .thenReturn(DocumentCreatedDTO.builder()
+                        .id("id-1")
+                        .contentElements(List.of(
+                                ContentElementDTO.builder().index(0).fileName("page1.tif").size(3).sha256("aa").build(),
+                                ContentElementDTO.builder().index(1).fileName("page2.tif").size(3).sha256("bb").build()))
+                        .build());
+
+        mockMvc.perform(multipart("/api/documents/multi-content")
+                .file(page1)
+                .file(page2)
+                .param("documentClass", "TestClass"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("id-1"))
+                .andExpect(jsonPath("$.contentElements[1].fileName").value("page2.tif"))
+                .andExpect(jsonPath("$.contentElements[1].sha256").value("bb"));
+    }
+
+    @Test
+    void createMultiContentDocument_ChecksumMismatch() throws Exception {
+        MockMultipartFile page1 = new MockMultipartFile("files", "page1.tif", "image/tiff", "one".getBytes());
+
+        when(documentService.createDocument(any(MultipartFile[].class), eq("TestClass"), any(String[].class)))
+                .thenThrow(new RuntimeException("Content element 0 checksum mismatch"));
+
+        mockMvc.perform(multipart("/api/documents/multi-content")
+                .file(page1)
+                .param("documentClass", "TestClass")
+                .param("checksums", "00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Content element 0 checksum mismatch"));
+    }
+
     @Test
     void getDocument_Success() throws Exception {
-        when(documentService.getDocument("test-id")).thenReturn(mockDocument);
+        when(documentService.getDocument("test-id", null)).thenReturn(DocumentPropertiesDTO.builder()
+                .id("test-id")
+                .name("test.txt")
+                .documentClass("Document")
+                .dateLastModified(new Date(1000L))
+                .build());
 
         mockMvc.perform(get("/api/documents/test-id"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"test-id-1000\""))
+                .andExpect(jsonPath("$.id").value("test-id"))
+                .andExpect(jsonPath("$.documentClass").value("Document"));
+    }
+
+    @Test
+    void getDocument_Fields() throws Exception {
+        when(documentService.getDocument(eq("test-id"), any())).thenReturn(DocumentPropertiesDTO.builder()
+                .id("test-id")
+                .customProperties(Map.of("Title", "t"))
+                .build());
+
+        mockMvc.perform(get("/api/documents/test-id").param("fields", "Title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customProperties.Title").value("t"));
+
+        verify(documentService).getDocument(eq("test-id"), eq(new String[]{"Title"}));
+    }
+
+    @Test
+    void getDocument_NotModified() throws Exception {
+        when(documentService.getDocumentETag("test-id", null)).thenReturn("\"test-id-1000\"");
+
+        mockMvc.perform(get("/api/documents/test-id").header("If-None-Match", "\"test-id-1000\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"test-id-1000\""));
+
+        verify(documentService, never()).getDocument(any(), any());
+    }
+
+    @Test
+    void getDocument_StaleETag() throws Exception {
+        when(documentService.getDocumentETag("test-id", null)).thenReturn("\"test-id-2000\"");
+        when(documentService.getDocument("test-id", null)).thenReturn(DocumentPropertiesDTO.builder()
+                .id("test-id")
+                .dateLastModified(new Date(2000L))
+                .build());
+
+        mockMvc.perform(get("/api/documents/test-id").header("If-None-Match", "\"test-id-1000\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"test-id-2000\""));
     }
 
     @Test
     void getDocument_NotFound() throws Exception {
-        when(documentService.getDocument("non-existent")).thenThrow(new RuntimeException("Not found"));
+        when(documentService.getDocument("non-existent", null)).thenThrow(new RuntimeException("Not found"));
 
         mockMvc.perform(get("/api/documents/non-existent"))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getDocumentContent_Full() throws Exception {
+        when(documentService.getDocumentContent("test-id", 0)).thenReturn(testContent());
+
+        MvcResult result = mockMvc.perform(get("/api/documents/test-id/content"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"test-id-1.0-0\""))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().longValue("Content-Length", 100));
+        verify(documentService).copyContent(any(), eq(0L), eq(100L), any());
+    }
+
+    @Test
+    void getDocumentContent_CacheHitBypassesContentBulkhead() throws Exception {
+        DocumentContent cached = DocumentContent.builder()
+                .etag("\"test-id-1.0-0\"")
+                .contentLength(100)
+                .mimeType("application/pdf")
+                .dateLastModified(new Date(0))
+                .cachedFile(Path.of("cached.bin"))
+                .build();
+        when(documentService.getDocumentContent("test-id", 0)).thenReturn(cached);
+
+        MvcResult result = mockMvc.perform(get("/api/documents/test-id/content"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        verify(documentService, never()).acquireContentPermit();
+        verify(documentService).copyContent(eq(cached), eq(0L), eq(100L), any());
+    }
+
+    @Test
+    void getDocumentContent_Range() throws Exception {
+        when(documentService.getDocumentContent("test-id", 0)).thenReturn(testContent());
+
+        MvcResult result = mockMvc.perform(get("/api/documents/test-id/content")
+                .header("Range", "bytes=10-19"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 10-19/100"))
+                .andExpect(header().longValue("Content-Length", 10));
+        verify(documentService).copyContent(any(), eq(10L), eq(10L), any());
+    }
+
+    @Test
+    void getDocumentContent_StaleIfRangeReturnsFullContent() throws Exception {
+        when(documentService.getDocumentContent("test-id", 0)).thenReturn(testContent());
+
+        MvcResult result = mockMvc.perform(get("/api/documents/test-id/content")
+                .header("Range", "bytes=10-19")
+                .header("If-Range", "\"stale\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        verify(documentService).copyContent(any(), eq(0L), eq(100L), any());
+    }
+
+    @Test
+    void getDocumentContent_FarRangeReturnsFullContent() throws Exception {
+        long length = 1L << 30;
+        DocumentContent large = DocumentContent.builder()
+                .etag("\"test-id-1.0-0\"")
+                .contentLength(length)
+                .mimeType("application/pdf")
+                .dateLastModified(new Date(0))
+                .build();
+        when(documentService.getDocumentContent("test-id", 0)).thenReturn(large);
+
+        MvcResult result = mockMvc.perform(get("/api/documents/test-id/content")
+                .header("Range", "bytes=536870912-536870921"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Range"))
+                .andExpect(header().longValue("Content-Length", length));
+        verify(documentService).copyContent(eq(large), eq(0L), eq(length), any());
+    }
+
+    @Test
+    void getDocumentContent_RangeNotSatisfiable() throws Exception {
+        when(documentService.getDocumentContent("test-id", 0)).thenReturn(testContent());
+
+        mockMvc.perform(get("/api/documents/test-id/content")
+                .header("Range", "bytes=200-300"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */100"));
+    }
+
     @Test
     void deleteDocument_Success() throws Exception {
         doNothing().when(documentService).deleteDocument("test-id");
@@ -106,6 +366,44 @@ class DocumentControllerTest {
                 .andExpect(content().string("Delete error"));
     }
 
+    @Test
+    void deleteDocuments_ReturnsPerIdStatus() throws Exception {
+        BulkRequestDTO bulkRequest = new BulkRequestDTO();
+        bulkRequest.setIds(List.of("id-1", "id-2"));
+
+        when(documentService.deleteDocuments(List.of("id-1", "id-2")))
+                .thenReturn(List.of(
+                        BatchItemResultDTO.builder().index(0).id("id-1").status(BatchItemResultDTO.Status.DELETED).build(),
+                        BatchItemResultDTO.builder().index(1).id("id-2").status(BatchItemResultDTO.Status.NOT_FOUND).build()));
+
+        mockMvc.perform(post("/api/documents/bulk-delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bulkRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("DELETED"))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    void getDocuments_ReturnsDocuments() throws Exception {
+        BulkRequestDTO bulkRequest = new BulkRequestDTO();
+        bulkRequest.setIds(List.of("id-1"));
+
+        when(documentService.getDocuments(eq(List.of("id-1")), isNull()))
+                .thenReturn(List.of(BatchItemResultDTO.builder()
+                        .index(0)
+                        .id("id-1")
+                        .status(BatchItemResultDTO.Status.FOUND)
+                        .document(DocumentPropertiesDTO.builder().id("id-1").name("test.txt").build())
+                        .build()));
+
+        mockMvc.perform(post("/api/documents/bulk-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bulkRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].document.name").value("test.txt"));
+    }
+
     @Test
     void searchDocuments_Success() throws Exception {
         DocumentPropertiesDTO dto = DocumentPropertiesDTO.builder()
@@ -120,7 +418,7 @@ class DocumentControllerTest {
                 .customProperties(Collections.emptyMap())
                 .build();
 
-        when(documentService.searchDocuments(anyString(), anyInt()))
+        when(documentService.searchDocuments(anyString(), anyInt(), any()))
                 .thenReturn(Collections.singletonList(dto));
 
         mockMvc.perform(get("/api/documents/search")
@@ -131,7 +429,7 @@ class DocumentControllerTest {
 
     @Test
     void searchDocuments_Failure() throws Exception {
-        when(documentService.searchDocuments(anyString(), anyInt()))
+        when(documentService.searchDocuments(anyString(), anyInt(), any()))
                 .thenThrow(new RuntimeException("Invalid SQL"));
 
         mockMvc.perform(get("/api/documents/search")
@@ -187,4 +485,227 @@ class DocumentControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Invalid SQL"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchDocumentsPage_ReturnsContinuationToken() throws Exception {
+        SearchRequestDTO searchRequest = new SearchRequestDTO();
+        searchRequest.setSqlQuery("SELECT * FROM Document");
+        searchRequest.setMaxResults(50);
+
+        when(documentService.searchDocumentsPage(any(SearchRequestDTO.class)))
+                .thenReturn(SearchPageDTO.builder()
+                        .results(Collections.singletonList(DocumentPropertiesDTO.builder().id("test-id").build()))
+                        .continuationToken("next-token")
+                        .build());
+
+        mockMvc.perform(post("/api/documents/search/page")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(searchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].id").value("test-id"))
+                .andExpect(jsonPath("$.continuationToken").value("next-token"));
+    }
+
+    @Test
+    void searchDocumentsPage_ExpiredToken() throws Exception {
+        SearchRequestDTO searchRequest = new SearchRequestDTO();
+        searchRequest.setContinuationToken("expired");
+
+        when(documentService.searchDocumentsPage(any(SearchRequestDTO.class)))
+                .thenThrow(new IllegalArgumentException("Unknown or expired continuation token"));
+
+        mockMvc.perform(post("/api/documents/search/page")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(searchRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unknown or expired continuation token"));
+    }
+
+    @Test
+    void searchDocumentsPage_ColumnarAcceptHeader() throws Exception {
+        SearchRequestDTO searchRequest = new SearchRequestDTO();
+        searchRequest.setSqlQuery("SELECT * FROM Document");
+
+        when(documentService.searchDocumentsPage(any(SearchRequestDTO.class)))
+                .thenReturn(SearchPageDTO.builder()
+                        .results(List.of(DocumentPropertiesDTO.builder().id("id-1")
+                                .customProperties(Map.of("Title", "first")).build()))
+                        .continuationToken("next-token")
+                        .build());
+
+        mockMvc.perform(post("/api/documents/search/page")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept("application/vnd.filenet.columnar+json")
+                .content(objectMapper.writeValueAsString(searchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/vnd.filenet.columnar+json"))
+                .andExpect(jsonPath("$.columns[0]").value("id"))
+                .andExpect(jsonPath("$.columns[8]").value("customProperties.Title"))
+                .andExpect(jsonPath("$.rows[0][0]").value("id-1"))
+                .andExpect(jsonPath("$.rows[0][8]").value("first"))
+                .andExpect(jsonPath("$.continuationToken").value("next-token"));
+    }
+
+    @Test
+    void searchDocuments_SmileEncoding() throws Exception {
+        when(documentService.searchDocuments(anyString(), anyInt(), any()))
+                .thenReturn(List.of(DocumentPropertiesDTO.builder().id("id-1").build()));
+
+        mockMvc.perform(get("/api/documents/search")
+                .param("sql", "SELECT * FROM Document")
+                .param("layout", "columnar")
+                .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"));
+    }
+
+    @Test
+    void searchDocumentsStream_WritesOneObjectPerLine() throws Exception {
+        SearchRequestDTO searchRequest = new SearchRequestDTO();
+        searchRequest.setSqlQuery("SELECT * FROM Document");
+
+        doAnswer(invocation -> {
+            DocumentService.PageHandler handler = invocation.getArgument(1);
+            handler.onPage(List.of(DocumentPropertiesDTO.builder().id("id-1").build(),
+                    DocumentPropertiesDTO.builder().id("id-2").build()));
+            handler.onPage(List.of(DocumentPropertiesDTO.builder().id("id-3").build()));
+            return null;
+        }).when(documentService).streamDocuments(any(SearchRequestDTO.class), any());
+
+        MvcResult result = mockMvc.perform(post("/api/documents/search/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(searchRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id-3", objectMapper.readTree(lines[2]).get("id").asText());
+    }
+
+    @Test
+    void searchDocumentsFederated_ReportsSkippedStores() throws Exception {
+        SearchRequestDTO searchRequest = new SearchRequestDTO();
+        searchRequest.setSqlQuery("SELECT * FROM Document");
+        searchRequest.setOrderBy("DateCreated");
+        when(documentService.resolveObjectStores(any(SearchRequestDTO.class))).thenReturn(List.of("OS1", "OS2"));
+        doAnswer(invocation -> {
+            DocumentService.PageHandler handler = invocation.getArgument(2);
+            handler.onPage(List.of(DocumentPropertiesDTO.builder().id("id-1").objectStore("OS1").build()));
+            return List.of("OS2");
+        }).when(documentService).streamDocumentsAcrossStores(eq(List.of("OS1", "OS2")), any(SearchRequestDTO.class), any());
+
+        MvcResult result = mockMvc.perform(post("/api/documents/search/federated")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(searchRequest)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("OS1", objectMapper.readTree(lines[0]).get("objectStore").asText());
+        assertEquals("OS2", objectMapper.readTree(lines[1]).get("skippedObjectStores").get(0).asText());
+    }
+
+    @Test
+    void searchDocumentsFederated_UnknownStore() throws Exception {
+        SearchRequestDTO searchRequest = new SearchRequestDTO();
+        searchRequest.setSqlQuery("SELECT * FROM Document");
+        when(documentService.resolveObjectStores(any(SearchRequestDTO.class)))
+                .thenThrow(new IllegalArgumentException("Object store OS9 is not configured for federated search"));
+
+        mockMvc.perform(post("/api/documents/search/federated")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(searchRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(documentService, never()).acquireSearchPermit();
+    }
+
+    @Test
+    void getChanges_EndsWithWatermark() throws Exception {
+        ChangeQuery query = ChangeQuery.builder().documentClass("Document").build();
+        when(documentService.prepareChanges("token-1", null, null)).thenReturn(query);
+        doAnswer(invocation -> {
+            DocumentService.ChangeHandler handler = invocation.getArgument(1);
+            handler.onChanges(List.of(ChangeDTO.builder().type(ChangeDTO.Type.MODIFIED).id("id-1").build(),
+                    ChangeDTO.builder().type(ChangeDTO.Type.DELETED).id("id-2").build()));
+            return ChangeFeedCheckpointDTO.builder().watermark("token-2").hasMore(true).build();
+        }).when(documentService).streamChanges(eq(query), any());
+
+        MvcResult result = mockMvc.perform(get("/api/documents/changes").param("since", "token-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("MODIFIED", objectMapper.readTree(lines[0]).get("type").asText());
+        assertEquals("id-2", objectMapper.readTree(lines[1]).get("id").asText());
+        assertEquals("token-2", objectMapper.readTree(lines[2]).get("watermark").asText());
+        assertEquals(true, objectMapper.readTree(lines[2]).get("hasMore").asBoolean());
+    }
+
+    @Test
+    void getChanges_InvalidWatermark() throws Exception {
+        when(documentService.prepareChanges("bogus", null, null))
+                .thenThrow(new IllegalArgumentException("Invalid change watermark: bogus"));
+
+        mockMvc.perform(get("/api/documents/changes").param("since", "bogus"))
+                .andExpect(status().isBadRequest());
+
+        verify(documentService, never()).acquireSearchPermit();
+    }
+
+    @Test
+    void searchDocumentsStream_CapacityExceeded() throws Exception {
+        SearchRequestDTO searchRequest = new SearchRequestDTO();
+        searchRequest.setSqlQuery("SELECT * FROM Document");
+        when(documentService.acquireSearchPermit())
+                .thenThrow(new CapacityExceededException("search capacity exhausted", 1));
+
+        mockMvc.perform(post("/api/documents/search/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(searchRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(documentService, never()).streamDocuments(any(), any());
+    }
+
+    @Test
+    void getDocument_CapacityExceeded() throws Exception {
+        when(documentService.getDocument("test-id"))
+                .thenThrow(new CapacityExceededException("metadata capacity exhausted", 1));
+
+        mockMvc.perform(get("/api/documents/test-id"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    private DocumentContent testContent() {
+        return DocumentContent.builder()
+                .etag("\"test-id-1.0-0\"")
+                .contentLength(100)
+                .mimeType("application/pdf")
+                .retrievalName("test.pdf")
+                .dateLastModified(new Date(0))
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.filenetapi.controller;
+
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.IngestTicketDTO;
+import com.example.filenetapi.service.CapacityExceededException;
+import com.example.filenetapi.service.IngestQueue;
+import com.example.filenetapi.service.UploadBudget;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(IngestController.class)
+@WithMockUser
+class IngestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private IngestQueue ingestQueue;
+
+    @MockBean
+    private FileNetSessionManager sessionManager;
+
+    @MockBean
+    private UploadBudget uploadBudget;
+
+    @Test
+    void enqueue_ReturnsAcceptedTicket() throws Exception {
+        when(ingestQueue.enqueue(any(InputStream.class), eq(4L), eq("Invoice"), eq("text/plain"), eq("a.txt"), eq("key-1")))
+                .thenReturn(IngestTicketDTO.builder().ticketId("t1").status(IngestTicketDTO.Status.QUEUED).build());
+
+        mockMvc.perform(post("/api/documents/ingest")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("scan".getBytes())
+                .header("Idempotency-Key", "key-1")
+                .param("documentClass", "Invoice")
+                .param("mimeType", "text/plain")
+                .param("fileName", "a.txt"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/documents/ingest/t1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void enqueue_LogFull() throws Exception {
+        when(ingestQueue.enqueue(any(InputStream.class), anyLong(), any(), any(), any(), any()))
+                .thenThrow(new CapacityExceededException("Ingest queue is full, retry later", 30));
+
+        mockMvc.perform(post("/api/documents/ingest")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("scan".getBytes())
+                .param("documentClass", "Invoice"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"));
+    }
+
+    @Test
+    void enqueue_RefusedWithPassThroughCredentials() throws Exception {
+        when(ingestQueue.enqueue(any(InputStream.class), anyLong(), any(), any(), any(), any()))
+                .thenThrow(new UnsupportedOperationException("Async ingest is disabled"));
+
+        mockMvc.perform(post("/api/documents/ingest")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("scan".getBytes())
+                .param("documentClass", "Invoice"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getTicket_UnknownIsNotFound() throws Exception {
+        when(ingestQueue.get("missing")).thenReturn(null);
+
+        mockMvc.perform(get("/api/documents/ingest/missing"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.filenetapi.controller;
+
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.UploadChunkDTO;
+import com.example.filenetapi.dto.UploadSessionDTO;
+import com.example.filenetapi.service.UploadBudget;
+import com.example.filenetapi.service.UploadSessionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UploadSessionController.class)
+@WithMockUser
+class UploadSessionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UploadSessionManager uploadSessionManager;
+
+    @MockBean
+    private FileNetSessionManager sessionManager;
+
+    @MockBean
+    private UploadBudget uploadBudget;
+
+    @Test
+    void createSession_Success() throws Exception {
+        when(uploadSessionManager.create(any()))
+                .thenReturn(UploadSessionDTO.builder().sessionId("s1").totalSize(20).build());
+
+        mockMvc.perform(post("/api/documents/uploads")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"documentClass\":\"Document\",\"totalSize\":20}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessionId").value("s1"));
+    }
+
+    @Test
+    void uploadChunk_PassesOffsetAndChecksum() throws Exception {
+        when(uploadSessionManager.writeChunk(eq("s1"), eq(10L), eq(5L), any(InputStream.class), eq("abc")))
+                .thenReturn(UploadChunkDTO.builder().offset(10).length(5).sha256("abc").build());
+
+        mockMvc.perform(put("/api/documents/uploads/s1/chunks")
+                .param("offset", "10")
+                .header("X-Chunk-SHA256", "abc")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("hello".getBytes()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length").value(5));
+    }
+
+    @Test
+    void commitSession_MissingChunksIsConflict() throws Exception {
+        when(uploadSessionManager.commit("s1")).thenThrow(new IllegalStateException("missing content at offset 5"));
+
+        mockMvc.perform(post("/api/documents/uploads/s1/commit"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("missing content at offset 5"));
+    }
+
+    @Test
+    void commitSession_Success() throws Exception {
+        when(uploadSessionManager.commit("s1")).thenReturn("doc-1");
+
+        mockMvc.perform(post("/api/documents/uploads/s1/commit"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("doc-1"));
+    }
+}
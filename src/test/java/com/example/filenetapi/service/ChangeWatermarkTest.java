@@ -0,0 +1,53 @@
+package com.example.filenetapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChangeWatermarkTest {
+
+    private static final String ID = "{11111111-2222-3333-4444-555555555555}";
+
+    @Test
+    void missingSinceStartsFullSyncAndFollowsDeletionsFromNow() {
+        ChangeWatermark watermark = ChangeWatermark.parse(null, 5000L);
+
+        assertEquals(0L, watermark.getModifiedAt());
+        assertNull(watermark.getModifiedId());
+        assertEquals(5000L, watermark.getDeletedAt());
+    }
+
+    @Test
+    void instantBootstrapsBothPositions() {
+        ChangeWatermark watermark = ChangeWatermark.parse("1970-01-01T00:00:01Z", 5000L);
+
+        assertEquals(1000L, watermark.getModifiedAt());
+        assertEquals(1000L, watermark.getDeletedAt());
+        assertNull(watermark.getModifiedId());
+    }
+
+    @Test
+    void tokenRoundTrips() {
+        ChangeWatermark watermark = ChangeWatermark.parse(null, 5000L)
+                .afterModified(new Date(1234L), ID)
+                .afterDeleted(new Date(6000L), ID);
+
+        ChangeWatermark parsed = ChangeWatermark.parse(watermark.encode(), 0L);
+
+        assertEquals(1234L, parsed.getModifiedAt());
+        assertEquals(ID, parsed.getModifiedId());
+        assertEquals(6000L, parsed.getDeletedAt());
+        assertEquals(ID, parsed.getDeletedId());
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> ChangeWatermark.parse("not-a-token", 0L));
+        assertThrows(IllegalArgumentException.class, () -> ChangeWatermark.parse(
+                new ChangeWatermark(0L, "1 OR 1=1", 0L, null).encode(), 0L));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.filenet.api.collection.ClassDescriptionSet;
+import com.filenet.api.collection.PropertyDescriptionList;
+import com.filenet.api.core.Factory;
+import com.filenet.api.core.ObjectStore;
+import com.filenet.api.meta.ClassDescription;
+import com.filenet.api.util.Id;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ClassMetadataCacheTest {
+
+    private static final Id DOCUMENT_ID = new Id("{01A3A8C2-7AEC-11D1-A31B-0020AF9FBB1C}");
+    private static final Id INVOICE_ID = new Id("{5B1E2B3C-1111-2222-3333-444455556666}");
+
+    private ObjectStore objectStore;
+    private FileNetSessionManager sessionManager;
+    private ClassMetadataCache cache;
+    private ClassDescription document;
+    private ClassDescription invoice;
+
+    @BeforeEach
+    void setUp() {
+        objectStore = mock(ObjectStore.class);
+        when(objectStore.get_SymbolicName()).thenReturn("OS1");
+        FileNetSession session = mock(FileNetSession.class);
+        when(session.getObjectStore("OS1")).thenReturn(objectStore);
+        sessionManager = mock(FileNetSessionManager.class);
+        when(sessionManager.serviceSession()).thenReturn(session);
+        when(sessionManager.bind(session)).thenReturn(() -> { });
+        when(sessionManager.getObjectStoreNames()).thenReturn(List.of("OS1"));
+
+        invoice = classDescription("Invoice", INVOICE_ID, null);
+        document = classDescription("Document", DOCUMENT_ID, invoice);
+
+        cache = new ClassMetadataCache();
+        ReflectionTestUtils.setField(cache, "sessionManager", sessionManager);
+        ReflectionTestUtils.setField(cache, "warmClasses", List.of("Document"));
+        ReflectionTestUtils.setField(cache, "warmMaxClasses", 100);
+    }
+
+    @Test
+    void resolvesByNameAndClassIdFromOneFetch() {
+        try (MockedStatic<Factory.ClassDescription> factory = mockStatic(Factory.ClassDescription.class)) {
+            factory.when(() -> Factory.ClassDescription.fetchInstance(any(), eq("invoice"), any())).thenReturn(invoice);
+
+            assertEquals("Invoice", cache.get(objectStore, "invoice").getSymbolicName());
+            assertEquals("Invoice", cache.get(objectStore, INVOICE_ID.toString()).getSymbolicName());
+            assertEquals("Invoice", cache.get(objectStore, "INVOICE").getSymbolicName());
+
+            factory.verify(() -> Factory.ClassDescription.fetchInstance(any(), any(), any()), times(1));
+            assertEquals(2, cache.getStats().getHits());
+        }
+    }
+
+    @Test
+    void warmUpLoadsTheConfiguredClassTree() {
+        try (MockedStatic<Factory.ClassDescription> factory = mockStatic(Factory.ClassDescription.class)) {
+            factory.when(() -> Factory.ClassDescription.fetchInstance(any(), eq("Document"), any())).thenReturn(document);
+
+            cache.warmUp();
+
+            assertEquals("Document", cache.get(objectStore, "Document").getSymbolicName());
+            assertEquals("Invoice", cache.get(objectStore, "Invoice").getSymbolicName());
+            assertEquals(0, cache.getStats().getMisses());
+            assertEquals(2, cache.getStats().getSize());
+        }
+    }
+
+    @Test
+    void warmUpToleratesAnUnreachableEngine() {
+        when(sessionManager.serviceSession()).thenThrow(new IllegalStateException("CE down"));
+
+        assertDoesNotThrow(() -> cache.warmUp());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void refreshReplacesCachedEntries() {
+        try (MockedStatic<Factory.ClassDescription> factory = mockStatic(Factory.ClassDescription.class)) {
+            factory.when(() -> Factory.ClassDescription.fetchInstance(any(), eq("Invoice"), any())).thenReturn(invoice);
+            cache.get(objectStore, "Invoice");
+
+            ClassDescription changed = classDescription("Invoice", INVOICE_ID, null);
+            when(changed.get_SuperclassDescription()).thenReturn(document);
+            factory.when(() -> Factory.ClassDescription.fetchInstance(any(), eq("Invoice"), any())).thenReturn(changed);
+
+            cache.refresh();
+
+            assertEquals("Document", cache.get(objectStore, INVOICE_ID.toString()).getSuperclassName());
+        }
+    }
+
+    private static ClassDescription classDescription(String name, Id id, ClassDescription subclass) {
+        ClassDescription description = mock(ClassDescription.class);
+        when(description.get_SymbolicName()).thenReturn(name);
+        when(description.get_Id()).thenReturn(id);
+        PropertyDescriptionList properties = mock(PropertyDescriptionList.class);
+        when(properties.iterator()).thenAnswer(invocation -> Collections.emptyIterator());
+        when(description.get_PropertyDescriptions()).thenReturn(properties);
+        ClassDescriptionSet subclasses = mock(ClassDescriptionSet.class);
+        when(subclasses.iterator()).thenAnswer(invocation -> subclass != null
+                ? List.of(subclass).iterator() : Collections.emptyIterator());
+        when(description.get_ImmediateSubclassDescriptions()).thenReturn(subclasses);
+        return description;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.example.filenetapi.dto.SearchColumnsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ColumnarResultsTest {
+
+    @Test
+    void customColumnsAreUnionedInFirstSeenOrder() {
+        SearchColumnsDTO columns = ColumnarResults.of(List.of(
+                DocumentPropertiesDTO.builder().id("id-1").customProperties(Map.of("Title", "first")).build(),
+                DocumentPropertiesDTO.builder().id("id-2").customProperties(Map.of("Amount", 42)).build()), "token");
+
+        assertEquals(List.of("id", "name", "documentClass", "mimeType", "dateCreated", "dateLastModified",
+                "creator", "lastModifier", "customProperties.Title", "customProperties.Amount"), columns.getColumns());
+        assertEquals(Arrays.asList("id-1", null, null, null, null, null, null, null, "first", null),
+                columns.getRows().get(0));
+        assertEquals(Arrays.asList("id-2", null, null, null, null, null, null, null, null, 42),
+                columns.getRows().get(1));
+        assertEquals("token", columns.getContinuationToken());
+    }
+
+    @Test
+    void objectStoreColumnOnlyForFederatedResults() {
+        SearchColumnsDTO local = ColumnarResults.of(List.of(DocumentPropertiesDTO.builder().id("id-1").build()), null);
+        assertFalse(local.getColumns().contains("objectStore"));
+        assertNull(local.getContinuationToken());
+
+        SearchColumnsDTO federated = ColumnarResults.of(List.of(
+                DocumentPropertiesDTO.builder().id("id-1").objectStore("OS1").build()), null);
+        assertEquals("objectStore", federated.getColumns().get(8));
+        assertEquals("OS1", federated.getRows().get(0).get(8));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = Duration.ofMillis(100).toNanos();
+
+    @Test
+    void rejectsBeyondLimitAndReleasesOnClose() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 2, 1, 10, THRESHOLD, 3);
+
+        ConcurrencyLimiter.Permit first = limiter.acquire();
+        ConcurrencyLimiter.Permit second = limiter.acquire();
+        CapacityExceededException e = assertThrows(CapacityExceededException.class, limiter::acquire);
+        assertEquals(3, e.getRetryAfterSeconds());
+        assertEquals(1, limiter.getStats().getRejected());
+
+        first.close();
+        first.close();
+        assertEquals(1, limiter.getInFlight());
+        assertNotNull(limiter.acquire());
+        second.close();
+    }
+
+    @Test
+    void backsOffWhenLatencyExceedsThreshold() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 10, 2, 20, THRESHOLD, 1);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(THRESHOLD * 2);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void growsOnlyWhileTheLimitIsBeingUsed() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 2, 1, 3, THRESHOLD, 1);
+
+        limiter.onSample(1);
+        assertEquals(2, limiter.getLimit());
+
+        try (ConcurrencyLimiter.Permit permit = limiter.acquire()) {
+            for (int i = 0; i < 10; i++) {
+                limiter.onSample(1);
+            }
+        }
+        assertEquals(3, limiter.getLimit());
+        assertEquals("done", limiter.call(() -> "done"));
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void backsOffWhenTheCallFailsWithOverload() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 10, 1, 20, THRESHOLD, 1);
+        EngineRuntimeException failure = engineException(ExceptionCode.TRANSPORT_WSI_NETWORK_ERROR);
+
+        assertThrows(EngineRuntimeException.class, () -> limiter.call(() -> {
+            throw failure;
+        }));
+
+        assertEquals(9, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void callerErrorsDoNotBackOff() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 10, 1, 20, THRESHOLD, 1);
+        EngineRuntimeException notFound = engineException(ExceptionCode.E_OBJECT_NOT_FOUND);
+
+        assertThrows(EngineRuntimeException.class, () -> limiter.callUnsampled(() -> {
+            throw notFound;
+        }));
+        assertThrows(IllegalArgumentException.class, () -> limiter.call(() -> {
+            throw new IllegalArgumentException("bad");
+        }));
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void badQueriesDoNotBackOff() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 10, 1, 20, THRESHOLD, 1);
+        // Stands in for a query syntax error, or any other code outside the overload set
+        EngineRuntimeException badSql = engineException(mock(ExceptionCode.class));
+
+        for (int i = 0; i < 50; i++) {
+            assertThrows(EngineRuntimeException.class, () -> limiter.call(() -> {
+                throw badSql;
+            }));
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void timeoutsWrappedByTheCeBackOff() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 10, 1, 20, THRESHOLD, 1);
+        EngineRuntimeException wrapped = engineException(mock(ExceptionCode.class));
+        when(wrapped.getCause()).thenReturn(new SocketTimeoutException("read timed out"));
+
+        assertThrows(EngineRuntimeException.class, () -> limiter.call(() -> {
+            throw wrapped;
+        }));
+
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    void unsampledCallsLeaveTheLimitAlone() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 10, 1, 20, 0, 1);
+
+        assertEquals("done", limiter.callUnsampled(() -> {
+            Thread.sleep(5);
+            return "done";
+        }));
+
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static EngineRuntimeException engineException(ExceptionCode code) {
+        EngineRuntimeException e = mock(EngineRuntimeException.class);
+        when(e.getExceptionCode()).thenReturn(code);
+        return e;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.filenetapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentCacheTest {
+
+    private static final Date MODIFIED = new Date(1000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void servesCompletedFillsAndRanges() throws Exception {
+        ContentCache cache = new ContentCache(true, directory, 1024, 1024);
+        assertNull(cache.lookup("os/id/1.0/0", MODIFIED, 11));
+
+        fill(cache, "os/id/1.0/0", "hello world");
+
+        Path file = cache.lookup("os/id/1.0/0", MODIFIED, 11);
+        assertNotNull(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, cache.transferTo(file, 6, 5, out));
+        assertEquals("world", out.toString(StandardCharsets.UTF_8));
+        assertEquals(1, cache.getStats().getHits());
+    }
+
+    @Test
+    void dropsEntryWhenDateLastModifiedChanges() throws Exception {
+        ContentCache cache = new ContentCache(true, directory, 1024, 1024);
+        fill(cache, "os/id/1.0/0", "hello");
+        Path file = cache.lookup("os/id/1.0/0", MODIFIED, 5);
+
+        assertNull(cache.lookup("os/id/1.0/0", new Date(2000), 5));
+        assertFalse(Files.exists(file));
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverBudget() throws Exception {
+        ContentCache cache = new ContentCache(true, directory, 10, 10);
+        fill(cache, "a", "aaaa");
+        fill(cache, "b", "bbbb");
+        cache.lookup("a", MODIFIED, 4);
+
+        fill(cache, "c", "cccc");
+
+        assertNotNull(cache.lookup("a", MODIFIED, 4));
+        assertNull(cache.lookup("b", MODIFIED, 4));
+        assertNotNull(cache.lookup("c", MODIFIED, 4));
+        assertEquals(8, cache.getStats().getWeightBytes());
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void discardsIncompleteFillsAndAllowsOneFillerPerKey() throws Exception {
+        ContentCache cache = new ContentCache(true, directory, 1024, 1024);
+        try (ContentCache.Fill fill = cache.beginFill("k", MODIFIED, 10)) {
+            assertNull(cache.beginFill("k", MODIFIED, 10));
+            fill.write("short".getBytes(StandardCharsets.UTF_8), 0, 5);
+            fill.commit();
+        }
+
+        assertNull(cache.lookup("k", MODIFIED, 10));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+        assertNotNull(cache.beginFill("k", MODIFIED, 10));
+    }
+
+    @Test
+    void invalidatesByDocumentPrefix() throws Exception {
+        ContentCache cache = new ContentCache(true, directory, 1024, 1024);
+        fill(cache, "os/id/1.0/0", "one");
+        fill(cache, "os/id/1.0/1", "two");
+        fill(cache, "os/other/1.0/0", "three");
+
+        cache.invalidate("os/id/");
+
+        assertNull(cache.lookup("os/id/1.0/0", MODIFIED, 3));
+        assertNotNull(cache.lookup("os/other/1.0/0", MODIFIED, 5));
+    }
+
+    private static void fill(ContentCache cache, String key, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        try (ContentCache.Fill fill = cache.beginFill(key, MODIFIED, bytes.length)) {
+            fill.write(bytes, 0, bytes.length);
+            fill.commit();
+        }
+    }
+}
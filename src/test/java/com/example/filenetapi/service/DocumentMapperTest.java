@@ -0,0 +1,90 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.filenet.api.core.Document;
+import com.filenet.api.property.Properties;
+import com.filenet.api.property.Property;
+import com.filenet.api.util.Id;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentMapperTest {
+
+    private static final Id DOCUMENT_ID = new Id("{11111111-2222-3333-4444-555555555555}");
+
+    @Mock
+    private Document document;
+
+    @Mock
+    private Properties properties;
+
+    private final DocumentMapper mapper = new DocumentMapper();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(document.get_Id()).thenReturn(DOCUMENT_ID);
+        lenient().when(document.getClassName()).thenReturn("Invoice");
+        lenient().when(document.getProperties()).thenReturn(properties);
+    }
+
+    @Test
+    void mapsAllNonSystemProperties() {
+        Property name = property("Name", "invoice.pdf");
+        Property internal = property("F_DOCNUMBER", 42);
+        Property amount = property("Amount", 10.5);
+        doReturn(List.of(name, internal, amount).iterator()).when(properties).iterator();
+
+        DocumentPropertiesDTO dto = mapper.map(document);
+
+        assertEquals(DOCUMENT_ID.toString(), dto.getId());
+        assertEquals("Invoice", dto.getDocumentClass());
+        assertEquals(Map.of("Amount", 10.5), dto.getCustomProperties());
+    }
+
+    @Test
+    void readsProjectedPropertiesDirectly() {
+        when(properties.isPropertyPresent("Amount")).thenReturn(true);
+        when(properties.isPropertyPresent("Missing")).thenReturn(false);
+        when(properties.getObjectValue("Amount")).thenReturn(10.5);
+
+        DocumentPropertiesDTO dto = mapper.planFor(new String[]{"Amount", "Missing", "Name"}).map(document);
+
+        assertEquals(Map.of("Amount", 10.5), dto.getCustomProperties());
+        verify(properties, never()).iterator();
+        verify(properties, never()).isPropertyPresent("Name");
+    }
+
+    @Test
+    void trimsProjectedNamesLikeSearchProjection() {
+        when(properties.isPropertyPresent("Amount")).thenReturn(true);
+        when(properties.getObjectValue("Amount")).thenReturn(10.5);
+
+        DocumentPropertiesDTO dto = mapper.planFor(new String[]{" Amount ", "Amount", " Name"}).map(document);
+
+        assertEquals(Map.of("Amount", 10.5), dto.getCustomProperties());
+        verify(properties, never()).isPropertyPresent(" Amount ");
+    }
+
+    @Test
+    void reusesPlansPerProjection() {
+        assertSame(mapper.planFor(new String[]{"Amount"}), mapper.planFor(new String[]{"Amount"}));
+        assertSame(mapper.planFor(null), mapper.planFor(new String[0]));
+    }
+
+    private static Property property(String name, Object value) {
+        Property property = mock(Property.class);
+        when(property.getPropertyName()).thenReturn(name);
+        lenient().when(property.getObjectValue()).thenReturn(value);
+        return property;
+    }
+}
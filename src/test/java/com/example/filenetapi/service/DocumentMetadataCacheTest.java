@@ -0,0 +1,78 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentMetadataCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        DocumentMetadataCache cache = new DocumentMetadataCache(2, Duration.ofMinutes(5));
+        cache.put("alice", "OS1", "a", dto("a"));
+        cache.put("alice", "OS1", "b", dto("b"));
+        cache.get("alice", "OS1", "a");
+        cache.put("alice", "OS1", "c", dto("c"));
+
+        assertNotNull(cache.get("alice", "OS1", "a"));
+        assertNull(cache.get("alice", "OS1", "b"));
+        assertNotNull(cache.get("alice", "OS1", "c"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        DocumentMetadataCache cache = new DocumentMetadataCache(10, Duration.ZERO);
+        cache.put("alice", "OS1", "a", dto("a"));
+
+        assertNull(cache.get("alice", "OS1", "a"));
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    void countsHitsMissesAndInvalidations() {
+        DocumentMetadataCache cache = new DocumentMetadataCache(10, Duration.ofMinutes(5));
+        cache.put("alice", "OS1", "a", dto("a"));
+
+        assertNotNull(cache.get("alice", "OS1", "a"));
+        assertNull(cache.get("alice", "OS1", "b"));
+        cache.invalidate("OS1", "a");
+        assertNull(cache.get("alice", "OS1", "a"));
+
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(2, cache.getStats().getMisses());
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    void neverServesOneUsersEntryToAnother() {
+        DocumentMetadataCache cache = new DocumentMetadataCache(10, Duration.ofMinutes(5));
+        cache.put("alice", "OS1", "a", dto("a"));
+
+        assertNull(cache.get("bob", "OS1", "a"));
+        assertNull(cache.get("alice", "OS2", "a"));
+        assertNotNull(cache.get("alice", "OS1", "a"));
+    }
+
+    @Test
+    void invalidationDropsEveryUsersEntry() {
+        DocumentMetadataCache cache = new DocumentMetadataCache(10, Duration.ofMinutes(5));
+        cache.put("alice", "OS1", "a", dto("a"));
+        cache.put("bob", "OS1", "a", dto("a"));
+        cache.put("bob", "OS2", "a", dto("a"));
+
+        cache.invalidate("OS1", "a");
+
+        assertNull(cache.get("alice", "OS1", "a"));
+        assertNull(cache.get("bob", "OS1", "a"));
+        assertNotNull(cache.get("bob", "OS2", "a"));
+        assertEquals(2, cache.getStats().getInvalidations());
+    }
+
+    private static DocumentPropertiesDTO dto(String id) {
+        return DocumentPropertiesDTO.builder().id(id).build();
+    }
+}
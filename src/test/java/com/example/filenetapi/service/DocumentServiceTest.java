@@ -1,23 +1,53 @@
 package com.example.filenetapi.service;
 
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.BatchItemResultDTO;
+import com.example.filenetapi.dto.ChangeDTO;
+import com.example.filenetapi.dto.ChangeFeedCheckpointDTO;
+import com.example.filenetapi.dto.DocumentCreatedDTO;
 import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.example.filenetapi.dto.SearchRequestDTO;
 import com.filenet.api.collection.ContentElementList;
 import com.filenet.api.collection.DocumentSet;
+import com.filenet.api.constants.RefreshMode;
+import com.filenet.api.core.BatchItemHandle;
+import com.filenet.api.core.ContentTransfer;
 import com.filenet.api.core.Document;
 import com.filenet.api.core.Factory;
 import com.filenet.api.core.ObjectStore;
+import com.filenet.api.core.RetrievingBatch;
+import com.filenet.api.core.UpdatingBatch;
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
 import com.filenet.api.query.SearchScope;
+import com.filenet.api.util.Id;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -41,6 +71,39 @@ class DocumentServiceTest {
     @Mock
     private SearchScope searchScope;
 
+    @Mock
+    private UploadBudget uploadBudget;
+
+    @Mock
+    private FileNetSessionManager sessionManager;
+
+    @Mock
+    private DocumentMetadataCache metadataCache;
+
+    @Spy
+    private DocumentMapper documentMapper = new DocumentMapper();
+
+    @Mock
+    private SearchScopeFactory searchScopeFactory;
+
+    @Spy
+    private Bulkheads bulkheads = new Bulkheads(
+            new ConcurrencyLimiter("search", 20, 1, 80, Duration.ofSeconds(5).toNanos(), 1),
+            new ConcurrencyLimiter("content", 40, 1, 160, Duration.ofSeconds(2).toNanos(), 1),
+            new ConcurrencyLimiter("metadata", 50, 1, 200, Duration.ofSeconds(1).toNanos(), 1));
+
+    @Spy
+    private SearchQueryPlanCache queryPlanCache = new SearchQueryPlanCache();
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private ContentCache contentCache;
+
+    @Spy
+    private FileNetMetrics metrics = new FileNetMetrics(new SimpleMeterRegistry(), 50);
+
     @InjectMocks
     private DocumentService documentService;
 
@@ -48,6 +111,7 @@ class DocumentServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(sessionManager.currentObjectStore()).thenReturn(objectStore);
         mockFile = new MockMultipartFile(
             "file",
             "test.txt",
@@ -77,19 +141,357 @@ class DocumentServiceTest {
         }
     }
 
+    @Test
+    void createDocument_FromStream_AttachesCaptureSource() throws Exception {
+        try (MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class);
+             MockedStatic<Factory.ContentElement> contentElementFactory = mockStatic(Factory.ContentElement.class);
+             MockedStatic<Factory.ContentTransfer> contentTransferFactory = mockStatic(Factory.ContentTransfer.class)) {
+
+            ContentTransfer contentTransfer = mock(ContentTransfer.class);
+            documentFactory.when(() -> Factory.Document.createInstance(any(), any()))
+                         .thenReturn(document);
+            contentElementFactory.when(Factory.ContentElement::createList)
+                               .thenReturn(contentElementList);
+            contentTransferFactory.when(Factory.ContentTransfer::createInstance)
+                                .thenReturn(contentTransfer);
+
+            when(document.get_Id()).thenReturn("test-id");
+            InputStream content = new ByteArrayInputStream("test content".getBytes());
+
+            String result = documentService.createDocument(content, 12, "TestClass", "text/plain", "test.txt");
+
+            assertEquals("test-id", result);
+            verify(uploadBudget).reserve(12);
+            verify(contentTransfer).setCaptureSource(content);
+            verify(contentTransfer).set_RetrievalName("test.txt");
+            verify(contentElementList).add(contentTransfer);
+            verify(document).save(any());
+        }
+    }
+
+    @Test
+    void createDocument_MultipleFilesBecomeOrderedContentElements() throws Exception {
+        try (MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class);
+             MockedStatic<Factory.ContentElement> contentElementFactory = mockStatic(Factory.ContentElement.class);
+             MockedStatic<Factory.ContentTransfer> contentTransferFactory = mockStatic(Factory.ContentTransfer.class)) {
+
+            ContentTransfer page1 = mock(ContentTransfer.class);
+            ContentTransfer page2 = mock(ContentTransfer.class);
+            documentFactory.when(() -> Factory.Document.createInstance(any(), any()))
+                         .thenReturn(document);
+            contentElementFactory.when(Factory.ContentElement::createList)
+                               .thenReturn(contentElementList);
+            contentTransferFactory.when(Factory.ContentTransfer::createInstance)
+                                .thenReturn(page1, page2);
+            ReflectionTestUtils.setField(documentService, "bufferPool", new BufferPool(4, 8));
+            ReflectionTestUtils.setField(documentService, "contentReadExecutor", new SimpleAsyncTaskExecutor("test-parts-"));
+            ReflectionTestUtils.setField(documentService, "partReadAhead", 2);
+            ReflectionTestUtils.setField(documentService, "partQueueDepth", 2);
+
+            when(document.get_Id()).thenReturn("test-id");
+            // The CE drains each capture source during the save
+            doAnswer(invocation -> {
+                for (ContentTransfer page : List.of(page1, page2)) {
+                    ArgumentCaptor<InputStream> source = ArgumentCaptor.forClass(InputStream.class);
+                    verify(page).setCaptureSource(source.capture());
+                    source.getValue().readAllBytes();
+                }
+                return null;
+            }).when(document).save(any());
+
+            MockMultipartFile[] files = {
+                new MockMultipartFile("files", "page1.tif", "image/tiff", "page one".getBytes()),
+                new MockMultipartFile("files", "page2.tif", "image/tiff", "page two".getBytes())
+            };
+            DocumentCreatedDTO result = documentService.createDocument(files, "TestClass", null);
+
+            assertEquals("test-id", result.getId());
+            assertEquals(2, result.getContentElements().size());
+            assertEquals("page2.tif", result.getContentElements().get(1).getFileName());
+            assertEquals(8, result.getContentElements().get(1).getSize());
+            assertNotNull(result.getContentElements().get(1).getSha256());
+            verify(uploadBudget).reserve(16);
+            InOrder order = inOrder(contentElementList);
+            order.verify(contentElementList).add(page1);
+            order.verify(contentElementList).add(page2);
+            verify(page2).set_RetrievalName("page2.tif");
+        }
+    }
+
+    @Test
+    void createDocuments_CommitsPreassignedIdsInChunks() throws Exception {
+        String[] ids = {
+            "{11111111-0000-0000-0000-000000000001}",
+            "{11111111-0000-0000-0000-000000000002}",
+            "{11111111-0000-0000-0000-000000000003}"
+        };
+        UpdatingBatch batch = mock(UpdatingBatch.class);
+        try (MockedStatic<UpdatingBatch> batches = mockStatic(UpdatingBatch.class);
+             MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class);
+             MockedStatic<Factory.ContentElement> contentElementFactory = mockStatic(Factory.ContentElement.class);
+             MockedStatic<Factory.ContentTransfer> contentTransferFactory = mockStatic(Factory.ContentTransfer.class)) {
+            stubBatchFactories(batches, batch, documentFactory, contentElementFactory, contentTransferFactory);
+
+            List<BatchItemResultDTO> results = documentService.createDocuments(files(3), ids, "TestClass", 2, false);
+
+            assertEquals(3, results.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(i, results.get(i).getIndex());
+                assertEquals(ids[i], results.get(i).getId());
+                assertEquals(BatchItemResultDTO.Status.CREATED, results.get(i).getStatus());
+            }
+            batches.verify(() -> UpdatingBatch.createUpdatingBatchInstance(any(), eq(RefreshMode.NO_REFRESH)), times(2));
+            verify(batch, times(2)).updateBatch();
+            documentFactory.verify(() -> Factory.Document.createInstance(objectStore, "TestClass", new Id(ids[2])));
+            verify(uploadBudget).reserve(24);
+            verify(uploadBudget).reserve(12);
+        }
+    }
+
+    @Test
+    void createDocuments_RefreshAssignsIdsUpFront() throws Exception {
+        UpdatingBatch batch = mock(UpdatingBatch.class);
+        try (MockedStatic<UpdatingBatch> batches = mockStatic(UpdatingBatch.class);
+             MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class);
+             MockedStatic<Factory.ContentElement> contentElementFactory = mockStatic(Factory.ContentElement.class);
+             MockedStatic<Factory.ContentTransfer> contentTransferFactory = mockStatic(Factory.ContentTransfer.class)) {
+            stubBatchFactories(batches, batch, documentFactory, contentElementFactory, contentTransferFactory);
+
+            List<BatchItemResultDTO> results = documentService.createDocuments(files(2), null, "TestClass", 10, true);
+
+            assertEquals(2, results.size());
+            assertNotNull(results.get(0).getId());
+            assertNotEquals(results.get(0).getId(), results.get(1).getId());
+            batches.verify(() -> UpdatingBatch.createUpdatingBatchInstance(any(), eq(RefreshMode.REFRESH)));
+            verify(batch).updateBatch();
+        }
+    }
+
+    @Test
+    void createDocuments_FailedBatchFailsWholeChunk() throws Exception {
+        UpdatingBatch batch = mock(UpdatingBatch.class);
+        doThrow(new IllegalStateException("duplicate id")).doNothing().when(batch).updateBatch();
+        try (MockedStatic<UpdatingBatch> batches = mockStatic(UpdatingBatch.class);
+             MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class);
+             MockedStatic<Factory.ContentElement> contentElementFactory = mockStatic(Factory.ContentElement.class);
+             MockedStatic<Factory.ContentTransfer> contentTransferFactory = mockStatic(Factory.ContentTransfer.class)) {
+            stubBatchFactories(batches, batch, documentFactory, contentElementFactory, contentTransferFactory);
+
+            List<BatchItemResultDTO> results = documentService.createDocuments(files(3), null, "TestClass", 2, false);
+
+            assertEquals(BatchItemResultDTO.Status.FAILED, results.get(0).getStatus());
+            assertEquals(BatchItemResultDTO.Status.FAILED, results.get(1).getStatus());
+            assertEquals("duplicate id", results.get(1).getError());
+            assertEquals(BatchItemResultDTO.Status.CREATED, results.get(2).getStatus());
+        }
+    }
+
+    @Test
+    void createDocuments_RejectsRemainingChunksOnceOneCommitted() throws Exception {
+        UpdatingBatch batch = mock(UpdatingBatch.class);
+        when(uploadBudget.reserve(anyLong()))
+                .thenReturn(null)
+                .thenThrow(new CapacityExceededException("Upload capacity exhausted", 5));
+        try (MockedStatic<UpdatingBatch> batches = mockStatic(UpdatingBatch.class);
+             MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class);
+             MockedStatic<Factory.ContentElement> contentElementFactory = mockStatic(Factory.ContentElement.class);
+             MockedStatic<Factory.ContentTransfer> contentTransferFactory = mockStatic(Factory.ContentTransfer.class)) {
+            stubBatchFactories(batches, batch, documentFactory, contentElementFactory, contentTransferFactory);
+
+            List<BatchItemResultDTO> results = documentService.createDocuments(files(5), null, "TestClass", 2, false);
+
+            assertEquals(5, results.size());
+            assertEquals(BatchItemResultDTO.Status.CREATED, results.get(1).getStatus());
+            for (int i = 2; i < 5; i++) {
+                assertEquals(i, results.get(i).getIndex());
+                assertEquals(BatchItemResultDTO.Status.REJECTED, results.get(i).getStatus());
+                assertEquals("Upload capacity exhausted", results.get(i).getError());
+            }
+            verify(batch, times(1)).updateBatch();
+            verify(uploadBudget, times(2)).reserve(anyLong());
+        }
+    }
+
+    @Test
+    void createDocuments_CapacityOnFirstChunkFailsRequest() {
+        when(uploadBudget.reserve(anyLong())).thenThrow(new CapacityExceededException("Upload capacity exhausted", 5));
+
+        assertThrows(CapacityExceededException.class,
+                () -> documentService.createDocuments(files(3), null, "TestClass", 2, false));
+    }
+
+    @Test
+    void getDocumentContent_ScopesCacheKeyPerUserUnderPassThrough() throws Exception {
+        ReflectionTestUtils.setField(documentService, "passThroughCredentials", true);
+        FileNetSession alice = mock(FileNetSession.class);
+        when(alice.getUsername()).thenReturn("alice");
+        when(sessionManager.currentSession()).thenReturn(alice);
+        ContentTransfer element = mock(ContentTransfer.class);
+        when(element.get_ContentSize()).thenReturn(100.0);
+        when(contentElementList.size()).thenReturn(1);
+        when(contentElementList.get(0)).thenReturn(element);
+        when(document.get_ContentElements()).thenReturn(contentElementList);
+        doReturn(new Id("{11111111-0000-0000-0000-000000000001}")).when(document).get_Id();
+        when(document.get_MajorVersionNumber()).thenReturn(1);
+        when(document.get_MinorVersionNumber()).thenReturn(0);
+        when(document.get_DateLastModified()).thenReturn(new Date(1000L));
+
+        try (MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
+            documentFactory.when(() -> Factory.Document.fetchInstance(any(), any(), any())).thenReturn(document);
+
+            DocumentContent content = documentService.getDocumentContent("{11111111-0000-0000-0000-000000000001}", 0);
+
+            assertTrue(content.getCacheKey().endsWith("/alice/1.0/0"), content.getCacheKey());
+        }
+    }
+
+    @Test
+    void copyContent_EvictedHitTakesContentPermit() throws Exception {
+        DocumentContent content = DocumentContent.builder()
+                .document(document)
+                .contentLength(4)
+                .cachedFile(Path.of("evicted.bin"))
+                .build();
+        when(contentCache.transferTo(any(), anyLong(), anyLong(), any())).thenThrow(new NoSuchFileException("evicted.bin"));
+        ConcurrencyLimiter limiter = bulkheads.content();
+        List<ConcurrencyLimiter.Permit> held = new ArrayList<>();
+        while (held.size() < limiter.getLimit()) {
+            held.add(limiter.acquire());
+        }
+
+        try {
+            assertThrows(CapacityExceededException.class,
+                    () -> documentService.copyContent(content, 0, 4, new ByteArrayOutputStream()));
+            verify(document, never()).accessContentStream(anyInt());
+        } finally {
+            held.forEach(ConcurrencyLimiter.Permit::close);
+        }
+    }
+
     @Test
     void getDocument_Success() throws Exception {
         try (MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
             documentFactory.when(() -> Factory.Document.fetchInstance(any(), any(), any()))
                          .thenReturn(document);
-            
-            Document result = documentService.getDocument("test-id");
-            
+            stubDocumentProperties();
+
+            DocumentPropertiesDTO result = documentService.getDocument("test-id");
+
             assertNotNull(result);
-            assertEquals(document, result);
+            assertEquals("test-id", result.getId());
+            verify(metadataCache).put(any(), any(), eq("test-id"), eq(result));
+        }
+    }
+
+    @Test
+    void getDocument_CacheHit() throws Exception {
+        DocumentPropertiesDTO cached = DocumentPropertiesDTO.builder().id("test-id").build();
+        when(metadataCache.get(any(), any(), eq("test-id"))).thenReturn(cached);
+
+        try (MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
+            assertSame(cached, documentService.getDocument("test-id"));
+            documentFactory.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    void getDocument_FieldsProjectCachedDocument() throws Exception {
+        DocumentPropertiesDTO cached = DocumentPropertiesDTO.builder()
+                .id("test-id")
+                .customProperties(Map.of("Title", "t", "Amount", 42))
+                .build();
+        when(metadataCache.get(any(), any(), eq("test-id"))).thenReturn(cached);
+
+        try (MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
+            DocumentPropertiesDTO result = documentService.getDocument("test-id", new String[]{"Title"});
+
+            assertEquals(Map.of("Title", "t"), result.getCustomProperties());
+            documentFactory.verifyNoInteractions();
         }
     }
 
+    @Test
+    void getDocumentETag_FetchesOnlyLastModified() throws Exception {
+        try (MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
+            documentFactory.when(() -> Factory.Document.fetchInstance(any(), any(), any()))
+                         .thenReturn(document);
+            when(document.get_Id()).thenReturn("test-id");
+            when(document.get_DateLastModified()).thenReturn(new Date(1000L));
+
+            assertEquals("\"test-id-1000\"", documentService.getDocumentETag("test-id", null));
+            verify(document, never()).getProperties();
+            verify(metadataCache, never()).get(any(), any(), any());
+            verify(metadataCache, never()).put(any(), any(), any(), any());
+        }
+    }
+
+    @Test
+    void etag_DiffersPerProjection() {
+        DocumentPropertiesDTO dto = DocumentPropertiesDTO.builder().id("test-id").dateLastModified(new Date(1000L)).build();
+
+        assertEquals("\"test-id-1000\"", DocumentService.etag(dto, null));
+        assertNotEquals(DocumentService.etag(dto, null), DocumentService.etag(dto, new String[]{"Title"}));
+        assertNull(DocumentService.etag(DocumentPropertiesDTO.builder().id("test-id").build(), null));
+    }
+
+    @Test
+    void streamChanges_StopsAtShortPage() throws Exception {
+        ReflectionTestUtils.setField(documentService, "changesPageSize", 2);
+        ReflectionTestUtils.setField(documentService, "maxChanges", 10);
+        ReflectionTestUtils.setField(documentService, "changesSettleTime", Duration.ZERO);
+        stubDocumentProperties();
+        when(documentSet.iterator()).thenReturn(List.of(document).iterator());
+        when(searchScopeFactory.create(objectStore)).thenReturn(searchScope);
+        when(searchScope.fetchObjects(any(), anyInt(), any(), anyBoolean())).thenReturn(documentSet);
+
+        List<ChangeDTO> emitted = new ArrayList<>();
+        ChangeFeedCheckpointDTO checkpoint = documentService.streamChanges(
+                documentService.prepareChanges(null, null, null), emitted::addAll);
+
+        assertEquals(1, emitted.size());
+        assertEquals(ChangeDTO.Type.MODIFIED, emitted.get(0).getType());
+        assertEquals("test-id", emitted.get(0).getId());
+        assertFalse(checkpoint.isHasMore());
+        verify(searchScope, times(1)).fetchObjects(any(), eq(2), any(), eq(false));
+    }
+
+    @Test
+    void prepareChanges_RejectsInvalidClass() {
+        assertThrows(IllegalArgumentException.class,
+                () -> documentService.prepareChanges(null, "Document WHERE 1=1", null));
+    }
+
+    @Test
+    void changesSql_KeysetFromWatermark() {
+        String id = "{11111111-2222-3333-4444-555555555555}";
+        ChangeWatermark watermark = ChangeWatermark.parse(null, 0L).afterModified(new Date(1000L), id);
+
+        String sql = DocumentService.changesSql("Invoice", null, watermark, new Date(2000L), 500);
+
+        assertEquals("SELECT TOP 500 * FROM Invoice WHERE DateLastModified < 19700101T000002.000Z"
+                + " AND (DateLastModified > 19700101T000001.000Z OR (DateLastModified = 19700101T000001.000Z"
+                + " AND Id > " + id + ")) ORDER BY DateLastModified, Id", sql);
+    }
+
+    @Test
+    void withSortKeys_AddsMissingCustomKeysToProjection() {
+        SearchRequestDTO request = new SearchRequestDTO();
+        request.setSqlQuery("SELECT * FROM Invoice ORDER BY DateCreated, Amount");
+        request.setPropertiesToInclude(new String[]{" Title"});
+        List<SearchQueryPlan.SortKey> sortKeys = List.of(
+                new SearchQueryPlan.SortKey("DateCreated", true), new SearchQueryPlan.SortKey("Amount", true));
+
+        SearchRequestDTO widened = DocumentService.withSortKeys(request, sortKeys);
+
+        assertArrayEquals(new String[]{" Title", "Amount"}, widened.getPropertiesToInclude());
+        assertEquals(request.getSqlQuery(), widened.getSqlQuery());
+        assertArrayEquals(new String[]{" Title"}, request.getPropertiesToInclude());
+        request.setPropertiesToInclude(new String[]{"amount"});
+        assertSame(request, DocumentService.withSortKeys(request, sortKeys));
+        request.setPropertiesToInclude(null);
+        assertSame(request, DocumentService.withSortKeys(request, sortKeys));
+    }
+
     @Test
     void deleteDocument_Success() throws Exception {
         try (MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
@@ -100,6 +502,90 @@ class DocumentServiceTest {
             
             verify(document).delete();
             verify(document).save(any());
+            verify(metadataCache).invalidate(any(), eq("test-id"));
+        }
+    }
+
+    @Test
+    void deleteDocuments_ReportsInvalidIdsNextToDeletedOnes() throws Exception {
+        String first = "{11111111-0000-0000-0000-000000000001}";
+        String second = "{11111111-0000-0000-0000-000000000002}";
+        UpdatingBatch batch = mock(UpdatingBatch.class);
+        useInlineBatches();
+        try (MockedStatic<UpdatingBatch> batches = mockStatic(UpdatingBatch.class);
+             MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
+            batches.when(() -> UpdatingBatch.createUpdatingBatchInstance(any(), any())).thenReturn(batch);
+            documentFactory.when(() -> Factory.Document.getInstance(any(), any(), any())).thenReturn(document);
+
+            List<BatchItemResultDTO> results = documentService.deleteDocuments(List.of(first, "not-an-id", second));
+
+            assertEquals(BatchItemResultDTO.Status.DELETED, results.get(0).getStatus());
+            assertEquals(BatchItemResultDTO.Status.FAILED, results.get(1).getStatus());
+            assertEquals("Invalid document ID", results.get(1).getError());
+            assertEquals(BatchItemResultDTO.Status.DELETED, results.get(2).getStatus());
+            verify(batch, times(2)).add(document, null);
+            verify(batch).updateBatch();
+            verify(metadataCache).invalidate(any(), eq(second));
+        }
+    }
+
+    @Test
+    void deleteDocuments_FailedBatchFallsBackToPerItemSaves() throws Exception {
+        Document missing = mock(Document.class);
+        Document broken = mock(Document.class);
+        EngineRuntimeException notFound = mock(EngineRuntimeException.class);
+        when(notFound.getExceptionCode()).thenReturn(ExceptionCode.E_OBJECT_NOT_FOUND);
+        doThrow(notFound).when(missing).save(RefreshMode.NO_REFRESH);
+        doThrow(new IllegalStateException("connection reset")).when(broken).save(RefreshMode.NO_REFRESH);
+        UpdatingBatch batch = mock(UpdatingBatch.class);
+        doThrow(new IllegalStateException("batch failed")).when(batch).updateBatch();
+        useInlineBatches();
+        try (MockedStatic<UpdatingBatch> batches = mockStatic(UpdatingBatch.class);
+             MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
+            batches.when(() -> UpdatingBatch.createUpdatingBatchInstance(any(), any())).thenReturn(batch);
+            documentFactory.when(() -> Factory.Document.getInstance(any(), any(), any()))
+                         .thenReturn(document, missing, broken);
+
+            List<BatchItemResultDTO> results = documentService.deleteDocuments(List.of(
+                    "{11111111-0000-0000-0000-000000000001}",
+                    "{11111111-0000-0000-0000-000000000002}",
+                    "{11111111-0000-0000-0000-000000000003}"));
+
+            assertEquals(BatchItemResultDTO.Status.DELETED, results.get(0).getStatus());
+            assertEquals(BatchItemResultDTO.Status.NOT_FOUND, results.get(1).getStatus());
+            assertEquals(BatchItemResultDTO.Status.FAILED, results.get(2).getStatus());
+            assertEquals("connection reset", results.get(2).getError());
+            verify(document).save(RefreshMode.NO_REFRESH);
+        }
+    }
+
+    @Test
+    void getDocuments_ReportsMissingHandlesAsNotFound() throws Exception {
+        String found = "{11111111-0000-0000-0000-000000000001}";
+        String gone = "{11111111-0000-0000-0000-000000000002}";
+        RetrievingBatch batch = mock(RetrievingBatch.class);
+        BatchItemHandle foundHandle = mock(BatchItemHandle.class);
+        BatchItemHandle goneHandle = mock(BatchItemHandle.class);
+        EngineRuntimeException notFound = mock(EngineRuntimeException.class);
+        when(notFound.getExceptionCode()).thenReturn(ExceptionCode.E_OBJECT_NOT_FOUND);
+        when(foundHandle.getObject()).thenReturn(document);
+        when(goneHandle.hasException()).thenReturn(true);
+        when(goneHandle.getException()).thenReturn(notFound);
+        when(batch.getBatchItemHandles(null)).thenReturn(List.of(foundHandle, goneHandle));
+        stubDocumentProperties();
+        useInlineBatches();
+        try (MockedStatic<RetrievingBatch> batches = mockStatic(RetrievingBatch.class);
+             MockedStatic<Factory.Document> documentFactory = mockStatic(Factory.Document.class)) {
+            batches.when(() -> RetrievingBatch.createRetrievingBatchInstance(any())).thenReturn(batch);
+            documentFactory.when(() -> Factory.Document.getInstance(any(), any(), any())).thenReturn(document);
+
+            List<BatchItemResultDTO> results = documentService.getDocuments(List.of(found, gone), null);
+
+            assertEquals(BatchItemResultDTO.Status.FOUND, results.get(0).getStatus());
+            assertEquals("test-id", results.get(0).getDocument().getId());
+            assertEquals(BatchItemResultDTO.Status.NOT_FOUND, results.get(1).getStatus());
+            assertEquals(gone, results.get(1).getId());
+            verify(batch).retrieveBatch();
         }
     }
 
@@ -116,6 +602,7 @@ class DocumentServiceTest {
             when(document.getProperties()).thenReturn(mock(com.filenet.api.property.Properties.class));
             
             when(documentSet.iterator()).thenReturn(List.of(document).iterator());
+            when(searchScopeFactory.create(objectStore)).thenReturn(searchScope);
             when(searchScope.fetchObjects(any(), anyInt(), any(), anyBoolean())).thenReturn(documentSet);
             
             List<DocumentPropertiesDTO> results = documentService.searchDocuments("SELECT * FROM Document", 100);
@@ -125,4 +612,55 @@ class DocumentServiceTest {
             assertEquals("test-id", results.get(0).getId());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchDocumentsAdvanced_RejectsOffsetAboveMaximum() {
+        ReflectionTestUtils.setField(documentService, "maxOffset", 100);
+        SearchRequestDTO request = new SearchRequestDTO();
+        request.setSqlQuery("SELECT * FROM Document");
+        request.setOffset(101);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> documentService.searchDocumentsAdvanced(request));
+        assertTrue(e.getMessage().contains("/search/page"));
+        verifyNoInteractions(searchScopeFactory, searchResultCache);
+    }
+
+    private void useInlineBatches() {
+        // Static factory mocks are thread-local, so chunks run on the calling thread
+        ReflectionTestUtils.setField(documentService, "filenetExecutor", new TaskExecutorAdapter(Runnable::run));
+        ReflectionTestUtils.setField(documentService, "bulkChunkSize", 100);
+        lenient().when(sessionManager.currentSession()).thenReturn(mock(FileNetSession.class));
+    }
+
+    private void stubBatchFactories(MockedStatic<UpdatingBatch> batches, UpdatingBatch batch,
+                                    MockedStatic<Factory.Document> documentFactory,
+                                    MockedStatic<Factory.ContentElement> contentElementFactory,
+                                    MockedStatic<Factory.ContentTransfer> contentTransferFactory) {
+        when(sessionManager.currentSession()).thenReturn(mock(FileNetSession.class));
+        batches.when(() -> UpdatingBatch.createUpdatingBatchInstance(any(), any())).thenReturn(batch);
+        documentFactory.when(() -> Factory.Document.createInstance(any(), any(), any())).thenReturn(document);
+        contentElementFactory.when(Factory.ContentElement::createList).thenReturn(contentElementList);
+        contentTransferFactory.when(Factory.ContentTransfer::createInstance).thenReturn(mock(ContentTransfer.class));
+    }
+
+    private static MockMultipartFile[] files(int count) {
+        MockMultipartFile[] files = new MockMultipartFile[count];
+        for (int i = 0; i < count; i++) {
+            files[i] = new MockMultipartFile("files", "file" + i + ".txt", "text/plain", "test content".getBytes());
+        }
+        return files;
+    }
+
+    private void stubDocumentProperties() {
+        when(document.get_Id()).thenReturn("test-id");
+        when(document.get_Name()).thenReturn("test.txt");
+        when(document.getClassName()).thenReturn("Document");
+        when(document.get_MimeType()).thenReturn("text/plain");
+        when(document.get_DateCreated()).thenReturn(new Date());
+        when(document.get_DateLastModified()).thenReturn(new Date());
+        when(document.get_Creator()).thenReturn("admin");
+        when(document.get_LastModifier()).thenReturn("admin");
+        when(document.getProperties()).thenReturn(mock(com.filenet.api.property.Properties.class));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileNetMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FileNetMetrics metrics = new FileNetMetrics(registry, 2);
+
+    @Test
+    void tagsOutcomeOfCeCalls() throws Exception {
+        assertEquals("ok", metrics.record("fetchInstance", "Invoice", () -> "ok"));
+        assertThrows(IllegalStateException.class, () -> metrics.record("fetchInstance", "Invoice", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, registry.get("filenet.ce.calls").tags("operation", "fetchInstance", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("filenet.ce.calls").tags("class", "Invoice", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void tagsMissingObjectsAsNotFound() {
+        EngineRuntimeException notFound = mock(EngineRuntimeException.class);
+        when(notFound.getExceptionCode()).thenReturn(ExceptionCode.E_OBJECT_NOT_FOUND);
+
+        assertThrows(EngineRuntimeException.class, () -> metrics.record("fetchInstance", "Invoice", () -> {
+            throw notFound;
+        }));
+
+        assertEquals(1, registry.get("filenet.ce.calls").tags("operation", "fetchInstance", "outcome", "not_found").timer().count());
+    }
+
+    @Test
+    void capsDistinctClassTags() throws Exception {
+        for (String documentClass : new String[]{"A", "B", "C", "D", null}) {
+            metrics.record("save", documentClass, () -> null);
+        }
+
+        assertEquals(2, registry.get("filenet.ce.calls").tag("class", "other").timer().count());
+        assertEquals(1, registry.get("filenet.ce.calls").tag("class", "none").timer().count());
+    }
+
+    @Test
+    void recordsTransferThroughput() {
+        metrics.recordTransfer("download", 1_000_000, 500_000_000);
+
+        assertEquals(2_000_000, registry.get("filenet.content.throughput").tag("direction", "download").summary().max(), 1);
+        assertEquals(1_000_000, registry.get("filenet.content.bytes").summary().totalAmount(), 1);
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.config.FileNetSession;
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.IngestTicketDTO;
+import com.filenet.api.exception.EngineRuntimeException;
+import com.filenet.api.exception.ExceptionCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IngestQueueTest {
+
+    @TempDir
+    Path directory;
+
+    private DocumentService documentService;
+    private FileNetSessionManager sessionManager;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private IngestQueue queue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        documentService = mock(DocumentService.class);
+        sessionManager = mock(FileNetSessionManager.class);
+        FileNetSession user = mock(FileNetSession.class);
+        when(user.getUsername()).thenReturn("alice");
+        when(sessionManager.currentSession()).thenReturn(user);
+        when(sessionManager.bind(any())).thenReturn(() -> { });
+        when(documentService.createDocumentFromLocalContent(any(), any(), anyLong(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    InputStream content = invocation.getArgument(1);
+                    received.add(new String(content.readAllBytes(), StandardCharsets.UTF_8));
+                    return invocation.getArgument(0);
+                });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void drainsQueuedUploadsAndReportsTheDocumentId() throws Exception {
+        queue = start();
+
+        IngestTicketDTO ticket = enqueue("scan one", null);
+        assertNotNull(ticket.getTicketId());
+
+        IngestTicketDTO done = awaitSettled(ticket.getTicketId());
+        assertEquals(IngestTicketDTO.Status.COMPLETED, done.getStatus());
+        assertNotNull(done.getDocumentId());
+        assertEquals(List.of("scan one"), received);
+    }
+
+    @Test
+    void idempotencyKeyReturnsTheOriginalTicket() throws Exception {
+        queue = start();
+
+        IngestTicketDTO first = enqueue("scan", "key-1");
+        IngestTicketDTO second = enqueue("scan", "key-1");
+
+        assertEquals(first.getTicketId(), second.getTicketId());
+        awaitSettled(first.getTicketId());
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    void retriesTransientFailures() throws Exception {
+        when(documentService.createDocumentFromLocalContent(any(), any(), anyLong(), any(), any(), any()))
+                .thenThrow(new RuntimeException("CE unavailable"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        queue = start();
+
+        IngestTicketDTO done = awaitSettled(enqueue("scan", null).getTicketId());
+
+        assertEquals(IngestTicketDTO.Status.COMPLETED, done.getStatus());
+        assertEquals(2, done.getAttempts());
+    }
+
+    @Test
+    void capacityRejectionsDoNotUseUpAttempts() throws Exception {
+        CapacityExceededException busy = new CapacityExceededException("Upload capacity exhausted", 0);
+        when(documentService.createDocumentFromLocalContent(any(), any(), anyLong(), any(), any(), any()))
+                .thenThrow(busy, busy, busy, busy)
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        queue = start();
+
+        IngestTicketDTO done = awaitSettled(enqueue("scan", null).getTicketId());
+
+        assertEquals(IngestTicketDTO.Status.COMPLETED, done.getStatus());
+        assertEquals(1, done.getAttempts());
+    }
+
+    @Test
+    void refusesUploadsWhenCredentialsArePassedThrough() throws Exception {
+        queue = start();
+        ReflectionTestUtils.setField(queue, "passThroughCredentials", true);
+
+        assertThrows(UnsupportedOperationException.class, () -> enqueue("scan", null));
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    void duplicateIdMeansAnEarlierAttemptSucceeded() throws Exception {
+        EngineRuntimeException duplicate = mock(EngineRuntimeException.class);
+        when(duplicate.getExceptionCode()).thenReturn(ExceptionCode.E_NOT_UNIQUE);
+        when(documentService.createDocumentFromLocalContent(any(), any(), anyLong(), any(), any(), any())).thenThrow(duplicate);
+        queue = start();
+
+        IngestTicketDTO done = awaitSettled(enqueue("scan", null).getTicketId());
+
+        assertEquals(IngestTicketDTO.Status.COMPLETED, done.getStatus());
+        assertEquals(1, done.getAttempts());
+    }
+
+    @Test
+    void pendingUploadsSurviveARestart() throws Exception {
+        when(documentService.createDocumentFromLocalContent(any(), any(), anyLong(), any(), any(), any()))
+                .thenThrow(new RuntimeException("CE unavailable"));
+        queue = start();
+        ReflectionTestUtils.setField(queue, "retryBackoff", Duration.ofHours(1));
+        IngestTicketDTO ticket = enqueue("survives restart", "key-2");
+        queue.stop();
+
+        reset(documentService);
+        when(documentService.createDocumentFromLocalContent(any(), any(), anyLong(), eq("Invoice"), any(), any()))
+                .thenAnswer(invocation -> {
+                    InputStream content = invocation.getArgument(1);
+                    received.add(new String(content.readAllBytes(), StandardCharsets.UTF_8));
+                    return invocation.getArgument(0);
+                });
+        queue = start();
+
+        assertEquals(IngestTicketDTO.Status.COMPLETED, awaitSettled(ticket.getTicketId()).getStatus());
+        assertEquals(List.of("survives restart"), received);
+        assertEquals(ticket.getTicketId(), enqueue("ignored", "key-2").getTicketId());
+    }
+
+    @Test
+    void rejectsUploadsBeyondTheLogBudget() throws Exception {
+        queue = start();
+        ReflectionTestUtils.setField(queue, "maxBytes", 16L);
+
+        assertThrows(CapacityExceededException.class, () -> enqueue("this upload is too large", null));
+    }
+
+    @Test
+    void concurrentUploadsCannotOvershootTheLogBudget() throws Exception {
+        // Workers hold every upload, so no completion records change the log size mid-test
+        CountDownLatch release = new CountDownLatch(1);
+        when(documentService.createDocumentFromLocalContent(any(), any(), anyLong(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return invocation.getArgument(0);
+                });
+        queue = start();
+        long before = queue.getLogBytes();
+        enqueue("sized", null);
+        // Room for one more upload, but not two
+        long perUpload = queue.getLogBytes() - before;
+        ReflectionTestUtils.setField(queue, "maxBytes", queue.getLogBytes() + perUpload + perUpload / 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger accepted = new AtomicInteger();
+        try {
+            List<Future<?>> uploads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                uploads.add(executor.submit(() -> {
+                    try {
+                        enqueue("sized", null);
+                        accepted.incrementAndGet();
+                    } catch (CapacityExceededException e) {
+                        // Expected for all but one
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> upload : uploads) {
+                upload.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            release.countDown();
+        }
+
+        assertEquals(1, accepted.get());
+    }
+
+    private IngestQueue start() throws Exception {
+        IngestQueue started = new IngestQueue();
+        ReflectionTestUtils.setField(started, "documentService", documentService);
+        ReflectionTestUtils.setField(started, "sessionManager", sessionManager);
+        ReflectionTestUtils.setField(started, "bufferPool", new BufferPool(8, 4));
+        ReflectionTestUtils.setField(started, "directory", directory);
+        ReflectionTestUtils.setField(started, "segmentBytes", 1024L);
+        ReflectionTestUtils.setField(started, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(started, "workers", 2);
+        ReflectionTestUtils.setField(started, "maxAttempts", 3);
+        ReflectionTestUtils.setField(started, "retryBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(started, "retention", Duration.ofHours(1));
+        ReflectionTestUtils.setField(started, "retryAfterSeconds", 1L);
+        started.start();
+        return started;
+    }
+
+    private IngestTicketDTO enqueue(String content, String idempotencyKey) throws Exception {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return queue.enqueue(new ByteArrayInputStream(bytes), bytes.length, "Invoice", "text/plain", "scan.txt", idempotencyKey);
+    }
+
+    private IngestTicketDTO awaitSettled(String ticketId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        IngestTicketDTO ticket = queue.get(ticketId);
+        while (ticket.getCompletedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            ticket = queue.get(ticketId);
+        }
+        return ticket;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.filenetapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelPartReaderTest {
+
+    private final BufferPool bufferPool = new BufferPool(4, 16);
+    private final SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("test-parts-");
+
+    @Test
+    void streamsPartsInOrderWithChecksums() throws Exception {
+        List<String> contents = List.of("first part", "second", "", "the fourth and longest part");
+        try (ParallelPartReader reader = new ParallelPartReader(sources(contents, new AtomicInteger()), null, 2, 2,
+                bufferPool, executor)) {
+            for (int i = 0; i < contents.size(); i++) {
+                try (InputStream in = reader.stream(i)) {
+                    assertEquals(contents.get(i), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                assertEquals(sha256(contents.get(i)), reader.getSha256(i));
+                assertEquals(contents.get(i).length(), reader.getSize(i));
+            }
+        }
+    }
+
+    @Test
+    void opensOnlyTheReadAheadWindowUpFront() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        List<String> contents = List.of("a", "b", "c", "d", "e");
+        try (ParallelPartReader reader = new ParallelPartReader(sources(contents, opened), null, 2, 1,
+                bufferPool, executor)) {
+            Thread.sleep(100);
+            assertEquals(2, opened.get());
+
+            reader.stream(0).readAllBytes();
+            reader.stream(1).readAllBytes();
+            reader.stream(2).readAllBytes();
+            assertEquals("e", new String(reader.stream(4).readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void failsTheStreamOnChecksumMismatch() {
+        List<String> contents = List.of("good", "bad");
+        List<String> expected = Arrays.asList(sha256("good"), "00");
+        try (ParallelPartReader reader = new ParallelPartReader(sources(contents, new AtomicInteger()), expected, 2, 2,
+                bufferPool, executor)) {
+            assertDoesNotThrow(() -> reader.stream(0).readAllBytes());
+            IOException e = assertThrows(IOException.class, () -> reader.stream(1).readAllBytes());
+            assertTrue(e.getMessage().contains("checksum mismatch"));
+        }
+    }
+
+    private static List<ParallelPartReader.PartSource> sources(List<String> contents, AtomicInteger opened) {
+        List<ParallelPartReader.PartSource> sources = new ArrayList<>();
+        for (String content : contents) {
+            sources.add(() -> {
+                opened.incrementAndGet();
+                return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+            });
+        }
+        return sources;
+    }
+
+    private static String sha256(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
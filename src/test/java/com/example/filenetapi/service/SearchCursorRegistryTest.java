@@ -0,0 +1,56 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.collection.PageIterator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SearchCursorRegistryTest {
+
+    private SearchCursorRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SearchCursorRegistry();
+        ReflectionTestUtils.setField(registry, "cursorTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(registry, "maxCursors", 2);
+    }
+
+    @Test
+    void tokensAreSingleUse() {
+        SearchCursorRegistry.Cursor cursor = new SearchCursorRegistry.Cursor(mock(PageIterator.class), "alice", null);
+        String token = registry.register(cursor);
+
+        assertSame(cursor, registry.take(token, "alice"));
+        assertThrows(IllegalArgumentException.class, () -> registry.take(token, "alice"));
+    }
+
+    @Test
+    void rejectsOtherOwners() {
+        String token = registry.register(new SearchCursorRegistry.Cursor(mock(PageIterator.class), "alice", null));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.take(token, "bob"));
+    }
+
+    @Test
+    void rejectsExpiredCursors() {
+        ReflectionTestUtils.setField(registry, "cursorTtl", Duration.ZERO);
+        String token = registry.register(new SearchCursorRegistry.Cursor(mock(PageIterator.class), "alice", null));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.take(token, "alice"));
+    }
+
+    @Test
+    void capsOpenCursors() {
+        registry.register(new SearchCursorRegistry.Cursor(mock(PageIterator.class), "alice", null));
+        registry.register(new SearchCursorRegistry.Cursor(mock(PageIterator.class), "alice", null));
+
+        assertThrows(CapacityExceededException.class,
+                () -> registry.register(new SearchCursorRegistry.Cursor(mock(PageIterator.class), "alice", null)));
+    }
+}
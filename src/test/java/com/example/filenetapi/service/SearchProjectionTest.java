@@ -0,0 +1,39 @@
+package com.example.filenetapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchProjectionTest {
+
+    @Test
+    void noProjectionWhenNothingRequested() {
+        assertNull(SearchProjection.of(null));
+        assertNull(SearchProjection.of(new String[0]));
+    }
+
+    @Test
+    void narrowsWildcardSelectList() {
+        SearchProjection projection = SearchProjection.of(new String[]{"InvoiceNumber", " Amount "});
+
+        assertEquals("SELECT Id, Name, MimeType, DateCreated, DateLastModified, Creator, LastModifier, InvoiceNumber, Amount"
+                        + " FROM Invoice WHERE Amount > 10",
+                projection.applySelectList("SELECT * FROM Invoice WHERE Amount > 10"));
+        assertArrayEquals(new String[]{"InvoiceNumber", "Amount"}, projection.getCustomProperties());
+        assertNotNull(projection.getPropertyFilter());
+    }
+
+    @Test
+    void keepsExplicitSelectList() {
+        SearchProjection projection = SearchProjection.of(new String[]{"InvoiceNumber"});
+
+        assertEquals("SELECT Id, InvoiceNumber FROM Invoice",
+                projection.applySelectList("SELECT Id, InvoiceNumber FROM Invoice"));
+    }
+
+    @Test
+    void rejectsInvalidPropertyNames() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SearchProjection.of(new String[]{"Name FROM Document; --"}));
+    }
+}
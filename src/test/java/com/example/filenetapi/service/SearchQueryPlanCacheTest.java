@@ -0,0 +1,82 @@
+package com.example.filenetapi.service;
+
+import com.filenet.api.core.ObjectStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SearchQueryPlanCacheTest {
+
+    private ClassMetadataCache classMetadataCache;
+    private ObjectStore objectStore;
+    private SearchQueryPlanCache cache;
+
+    @BeforeEach
+    void setUp() {
+        Set<String> properties = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        properties.addAll(Set.of("Id", "DocumentTitle", "DateCreated"));
+
+        classMetadataCache = mock(ClassMetadataCache.class);
+        when(classMetadataCache.get(any(), eq("Document"))).thenReturn(ClassMetadata.builder()
+                .symbolicName("Document")
+                .propertyNames(properties)
+                .build());
+        objectStore = mock(ObjectStore.class);
+        when(objectStore.get_SymbolicName()).thenReturn("OS1");
+
+        cache = new SearchQueryPlanCache();
+        ReflectionTestUtils.setField(cache, "classMetadataCache", classMetadataCache);
+    }
+
+    @Test
+    void reusesPlanForFormattingVariants() {
+        SearchQueryPlan first = cache.planFor(objectStore, "SELECT *  FROM Document\n WHERE x = 'a  b'", "DateCreated", false, null);
+        SearchQueryPlan second = cache.planFor(objectStore, " SELECT * FROM Document WHERE x = 'a  b' ", "DateCreated", false, null);
+
+        assertSame(first, second);
+        assertEquals("SELECT * FROM Document WHERE x = 'a  b' ORDER BY DateCreated DESC", first.getSql());
+        assertEquals(1, cache.getStats().getHits());
+        verify(classMetadataCache, times(1)).get(any(), eq("Document"));
+    }
+
+    @Test
+    void rebuildsOrderByFromValidatedTerms() {
+        SearchQueryPlan plan = cache.planFor(objectStore, "SELECT * FROM Document d", "d.documenttitle desc, DateCreated", true, null);
+
+        assertEquals("SELECT * FROM Document d ORDER BY d.documenttitle DESC, DateCreated ASC", plan.getSql());
+    }
+
+    @Test
+    void rejectsInjectedOrderBy() {
+        assertThrows(IllegalArgumentException.class, () ->
+                cache.planFor(objectStore, "SELECT * FROM Document", "DateCreated; DELETE FROM Document", true, null));
+        assertThrows(IllegalArgumentException.class, () ->
+                cache.planFor(objectStore, "SELECT * FROM Document", "(SELECT 1)", true, null));
+    }
+
+    @Test
+    void rejectsPropertiesUnknownToTheClass() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                cache.planFor(objectStore, "SELECT * FROM Document", "NoSuchProperty", true, null));
+
+        assertTrue(e.getMessage().contains("NoSuchProperty"));
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void appliesProjectionOnce() {
+        SearchQueryPlan plan = cache.planFor(objectStore, "SELECT * FROM Document", null, true, new String[]{"DocumentTitle"});
+
+        assertTrue(plan.getSql().startsWith("SELECT Id, Name"));
+        assertNotNull(plan.getPropertyFilter());
+        verifyNoInteractions(classMetadataCache);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import com.filenet.api.core.ObjectStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SearchResultCacheTest {
+
+    private ObjectStore objectStore;
+    private ClassMetadataCache classMetadataCache;
+
+    @BeforeEach
+    void setUp() {
+        objectStore = mock(ObjectStore.class);
+        when(objectStore.get_SymbolicName()).thenReturn("OS1");
+        classMetadataCache = mock(ClassMetadataCache.class);
+        when(classMetadataCache.get(any(), eq("Invoice")))
+                .thenReturn(ClassMetadata.builder().symbolicName("Invoice").superclassName("Document").build());
+        when(classMetadataCache.get(any(), eq("Document")))
+                .thenReturn(ClassMetadata.builder().symbolicName("Document").build());
+    }
+
+    @Test
+    void servesRepeatedSearchesFromCache() throws Exception {
+        SearchResultCache cache = cache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("alice", "Document"), () -> load(loads));
+        cache.get(key("alice", "Document"), () -> load(loads));
+        cache.get(key("bob", "Document"), () -> load(loads));
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().getHits());
+    }
+
+    @Test
+    void keysExplicitSelectListsByProjection() throws Exception {
+        SearchResultCache cache = cache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        String sql = "SELECT Id, Title, Amount FROM Invoice";
+
+        cache.get(projectedKey(sql, "Title"), () -> load(loads));
+        cache.get(projectedKey(sql, "Amount"), () -> load(loads));
+        cache.get(projectedKey(sql, " Title"), () -> load(loads));
+        cache.get(projectedKey(sql, "Amount", "Title"), () -> load(loads));
+        cache.get(projectedKey(sql, "Title", "Amount"), () -> load(loads));
+
+        assertEquals(3, loads.get());
+        assertEquals(2, cache.getStats().getHits());
+    }
+
+    @Test
+    void coalescesConcurrentMisses() throws Exception {
+        SearchResultCache cache = cache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<List<DocumentPropertiesDTO>> first = executor.submit(() -> cache.get(key("alice", "Document"), () -> {
+                release.await();
+                return load(loads);
+            }));
+            while (cache.getStats().getMisses() == 0) {
+                Thread.onSpinWait();
+            }
+            Future<List<DocumentPropertiesDTO>> second = executor.submit(() -> cache.get(key("alice", "Document"), () -> load(loads)));
+            while (cache.getStats().getCoalesced() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidatesQueriesOnTheClassAndItsAncestors() throws Exception {
+        SearchResultCache cache = cache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(key("alice", "Document"), () -> load(loads));
+        cache.get(key("alice", "Invoice"), () -> load(loads));
+        cache.get(key("alice", "Contract"), () -> load(loads));
+
+        cache.invalidateClass(objectStore, "Invoice");
+
+        assertEquals(1, cache.getStats().getSize());
+        assertEquals(2, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    void boundsMemoryByResultSize() throws Exception {
+        SearchResultCache cache = cache(SearchResultCache.weigh(dto()) * 2 + 400);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(key("a", "Document"), () -> load(loads));
+        cache.get(key("b", "Document"), () -> load(loads));
+        cache.get(key("c", "Document"), () -> load(loads));
+
+        assertTrue(cache.getStats().getWeightBytes() <= cache.getStats().getMaxWeightBytes());
+        assertTrue(cache.getStats().getEvictions() > 0);
+    }
+
+    private SearchResultCache cache(long maxBytes) {
+        SearchResultCache cache = new SearchResultCache(true, Duration.ofMinutes(1), maxBytes);
+        ReflectionTestUtils.setField(cache, "classMetadataCache", classMetadataCache);
+        return cache;
+    }
+
+    private SearchResultCache.Key key(String user, String className) {
+        SearchQueryPlan plan = new SearchQueryPlan("SELECT * FROM " + className, className, null);
+        return new SearchResultCache.Key(user, "OS1", plan, Map.of("p", 1), 0, 100);
+    }
+
+    private SearchResultCache.Key projectedKey(String sql, String... properties) {
+        SearchProjection projection = SearchProjection.of(properties);
+        SearchQueryPlan plan = new SearchQueryPlan(projection.applySelectList(sql), "Invoice", projection);
+        return new SearchResultCache.Key("alice", "OS1", plan, null, 0, 100);
+    }
+
+    private static List<DocumentPropertiesDTO> load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of(dto());
+    }
+
+    private static DocumentPropertiesDTO dto() {
+        return DocumentPropertiesDTO.builder().id("{00000000-0000-0000-0000-000000000001}").name("Invoice 1").build();
+    }
+}
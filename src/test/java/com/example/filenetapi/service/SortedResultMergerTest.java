@@ -0,0 +1,41 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.dto.DocumentPropertiesDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedResultMergerTest {
+
+    @Test
+    void ordersBySystemPropertyDescending() {
+        List<DocumentPropertiesDTO> rows = new ArrayList<>(List.of(
+                dto("a", new Date(1000), null), dto("b", new Date(3000), null), dto("c", new Date(2000), null)));
+
+        rows.sort(SortedResultMerger.comparatorFor(List.of(new SearchQueryPlan.SortKey("datecreated", false))));
+
+        assertEquals(List.of("b", "c", "a"), rows.stream().map(DocumentPropertiesDTO::getId).toList());
+    }
+
+    @Test
+    void breaksTiesWithLaterKeysAndSortsNullsLast() {
+        List<DocumentPropertiesDTO> rows = new ArrayList<>(List.of(
+                dto("a", new Date(1000), Map.of("Amount", 5)),
+                dto("b", null, Map.of("Amount", 1)),
+                dto("c", new Date(1000), Map.of("Amount", 2))));
+
+        rows.sort(SortedResultMerger.comparatorFor(List.of(
+                new SearchQueryPlan.SortKey("DateCreated", true), new SearchQueryPlan.SortKey("amount", true))));
+
+        assertEquals(List.of("c", "a", "b"), rows.stream().map(DocumentPropertiesDTO::getId).toList());
+    }
+
+    private static DocumentPropertiesDTO dto(String id, Date created, Map<String, Object> custom) {
+        return DocumentPropertiesDTO.builder().id(id).dateCreated(created).customProperties(custom).build();
+    }
+}
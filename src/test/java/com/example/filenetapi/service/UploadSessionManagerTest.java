@@ -0,0 +1,173 @@
+package com.example.filenetapi.service;
+
+import com.example.filenetapi.config.FileNetSessionManager;
+import com.example.filenetapi.dto.UploadSessionDTO;
+import com.example.filenetapi.dto.UploadSessionRequestDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UploadSessionManagerTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    private DocumentService documentService;
+    private UploadSessionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        documentService = mock(DocumentService.class);
+        manager = new UploadSessionManager();
+        ReflectionTestUtils.setField(manager, "documentService", documentService);
+        ReflectionTestUtils.setField(manager, "sessionManager", mock(FileNetSessionManager.class));
+        ReflectionTestUtils.setField(manager, "bufferPool", new BufferPool(4, 4));
+        ReflectionTestUtils.setField(manager, "directory", directory);
+        ReflectionTestUtils.setField(manager, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(manager, "maxSize", 1024L);
+        ReflectionTestUtils.setField(manager, "maxSessions", 10);
+        ReflectionTestUtils.setField(manager, "maxSpoolBytes", 4096L);
+    }
+
+    @Test
+    void commitsChunksWrittenOutOfOrderAndInParallel() throws Exception {
+        String id = manager.create(request(CONTENT.length)).getSessionId();
+        AtomicReference<String> spooled = new AtomicReference<>();
+        when(documentService.createDocumentFromSpool(any(), eq(20L), eq("Document"), eq("text/plain"), eq("a.txt")))
+                .thenAnswer(invocation -> {
+                    spooled.set(Files.readString(invocation.getArgument(0)));
+                    return "doc-1";
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> last = executor.submit(() -> chunk(id, 15, 5));
+            Future<?> middle = executor.submit(() -> chunk(id, 5, 10));
+            Future<?> first = executor.submit(() -> chunk(id, 0, 5));
+            last.get();
+            middle.get();
+            first.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(20, manager.get(id).getReceivedBytes());
+        assertEquals("doc-1", manager.commit(id));
+        assertEquals(new String(CONTENT, StandardCharsets.UTF_8), spooled.get());
+        assertThrows(IllegalArgumentException.class, () -> manager.get(id));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void rejectsCommitWithMissingRange() throws Exception {
+        String id = manager.create(request(CONTENT.length)).getSessionId();
+        chunk(id, 0, 5);
+        chunk(id, 10, 10);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> manager.commit(id));
+        assertTrue(e.getMessage().contains("offset 5"));
+        verify(documentService, never()).createDocumentFromSpool(any(), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void rejectsChunkWithWrongChecksum() throws Exception {
+        String id = manager.create(request(CONTENT.length)).getSessionId();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                manager.writeChunk(id, 0, 5, new ByteArrayInputStream(CONTENT, 0, 5), "00"));
+        assertTrue(manager.get(id).getChunks().isEmpty());
+    }
+
+    @Test
+    void keepsAcceptedBytesWhenRetryOrOverlapDiffers() throws Exception {
+        String id = manager.create(request(CONTENT.length)).getSessionId();
+        AtomicReference<String> spooled = new AtomicReference<>();
+        when(documentService.createDocumentFromSpool(any(), eq(20L), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    spooled.set(Files.readString(invocation.getArgument(0)));
+                    return "doc-1";
+                });
+        chunk(id, 0, 5);
+
+        assertThrows(IllegalStateException.class, () ->
+                manager.writeChunk(id, 0, 5, new ByteArrayInputStream(new byte[5]), null));
+        assertThrows(IllegalStateException.class, () ->
+                manager.writeChunk(id, 3, 5, new ByteArrayInputStream(new byte[5]), null));
+        chunk(id, 0, 5);
+        chunk(id, 5, 15);
+
+        assertEquals(2, manager.get(id).getChunks().size());
+        assertEquals("doc-1", manager.commit(id));
+        assertEquals(new String(CONTENT, StandardCharsets.UTF_8), spooled.get());
+    }
+
+    @Test
+    void rejectsChunkOutsideDeclaredSize() throws Exception {
+        String id = manager.create(request(CONTENT.length)).getSessionId();
+
+        assertThrows(IllegalArgumentException.class, () ->
+                manager.writeChunk(id, 15, 10, new ByteArrayInputStream(new byte[10]), null));
+    }
+
+    @Test
+    void refusesSessionsBeyondTheSpoolLimit() throws Exception {
+        ReflectionTestUtils.setField(manager, "maxSpoolBytes", 30L);
+        String first = manager.create(request(CONTENT.length)).getSessionId();
+
+        assertThrows(CapacityExceededException.class, () -> manager.create(request(CONTENT.length)));
+
+        manager.abort(first);
+        assertNotNull(manager.create(request(CONTENT.length)).getSessionId());
+    }
+
+    @Test
+    void evictsExpiredSessions() throws Exception {
+        ReflectionTestUtils.setField(manager, "ttl", Duration.ofMillis(-1));
+        UploadSessionDTO session = manager.create(request(CONTENT.length));
+
+        manager.evictExpiredSessions();
+
+        assertThrows(IllegalArgumentException.class, () -> manager.get(session.getSessionId()));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private void chunk(String id, int offset, int length) {
+        try {
+            manager.writeChunk(id, offset, length, new ByteArrayInputStream(CONTENT, offset, length), null);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static UploadSessionRequestDTO request(long size) {
+        UploadSessionRequestDTO request = new UploadSessionRequestDTO();
+        request.setDocumentClass("Document");
+        request.setFileName("a.txt");
+        request.setMimeType("text/plain");
+        request.setTotalSize(size);
+        return request;
+    }
+}